@@ -1,10 +1,8 @@
 package cs3500.animator.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.NavigableMap;
-import java.util.Objects;
-import java.util.TreeMap;
 
 /**
  * Represents an abstract class for implementations of shapes.
@@ -13,16 +11,22 @@ abstract class AbstractShape implements Shape {
 
   protected final String name;
   protected List<KeyMoment> keyMoments;
+  // ticks of the key moments in chronological order, parallel to keyMoments
+  private int[] ticks;
 
   /**
    * Constructs an AbstractShape, in terms of its name and its key moments in an animation.
    *
    * @param name       name of the shape
-   * @param keyMoments its key moments in an animation
+   * @param keyMoments its key moments in an animation, in chronological order
    */
   public AbstractShape(String name, List<KeyMoment> keyMoments) {
     this.name = name;
     this.keyMoments = keyMoments;
+    this.ticks = new int[keyMoments.size()];
+    for (int i = 0; i < keyMoments.size(); i++) {
+      this.ticks[i] = keyMoments.get(i).getTick();
+    }
   }
 
   /**
@@ -31,8 +35,7 @@ abstract class AbstractShape implements Shape {
    * @param name name of the shape
    */
   public AbstractShape(String name) {
-    this.name = name;
-    this.keyMoments = new ArrayList<KeyMoment>();
+    this(name, new ArrayList<KeyMoment>());
   }
 
   @Override
@@ -48,27 +51,23 @@ abstract class AbstractShape implements Shape {
     if (this == a) {
       return true;
     }
-    if (!(a instanceof AbstractShape)) {
+    if (!(a instanceof ReadOnlyShape)) {
       return false;
     }
 
-    AbstractShape that = (AbstractShape) a;
-
-    return (this.name.equals(that.name)
-            && this.keyMoments.containsAll(that.keyMoments)
-            && that.keyMoments.containsAll(this.keyMoments));
+    return Shapes.equal(this, (ReadOnlyShape) a);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(this.name, this.keyMoments);
+    return Shapes.hash(this);
   }
 
   @Override
   public void addAnimationShape(int startTick, Position2D startPosition, Dimensions startDimensions,
                                 Color startColor, int endTick, Position2D endPosition,
                                 Dimensions endDimensions, Color endColor) {
-    ensureEndTickBiggerThanStart(startTick, endTick);
+    Shapes.ensureEndTickNotBeforeStart(startTick, endTick);
     if (ensureStartAndEndNotSame(startTick, startPosition, startDimensions, startColor, endTick,
             endPosition, endDimensions, endColor)) {
       if (!this.keyMoments.isEmpty()) {
@@ -81,19 +80,6 @@ abstract class AbstractShape implements Shape {
     }
   }
 
-  /**
-   * Ensures that the end tick is bigger than the start tick so time is moving forward.
-   *
-   * @param startTick starting tick
-   * @param endTick   ending tick
-   * @throws IllegalArgumentException when the ending tick is smaller than the starting tick.
-   */
-  private void ensureEndTickBiggerThanStart(int startTick, int endTick) {
-    if (endTick < startTick) {
-      throw new IllegalArgumentException("End tick should be bigger than start tick");
-    }
-  }
-
   /**
    * Determines if the ending key moment is not the same as the starting key moment to avoid
    * repetition.
@@ -154,7 +140,7 @@ abstract class AbstractShape implements Shape {
 
     KeyMoment currentStart = new KeyMoment(startTick, startColor, startDimensions, startPosition);
     if (!currentStart.equals(this.keyMoments.get(this.keyMoments.size() - 1))) {
-      throw new IllegalArgumentException("Do not have common endpoint.");
+      throw new IllegalArgumentException(Shapes.NO_COMMON_ENDPOINT);
     }
   }
 
@@ -168,7 +154,8 @@ abstract class AbstractShape implements Shape {
    */
   private void addNewStateOfShape(int endTick, Position2D endPosition,
                                   Dimensions endDimensions, Color endColor) {
-    this.keyMoments.add(new KeyMoment(endTick, endColor, endDimensions, endPosition));
+    insertKeyMoment(this.keyMoments.size(),
+            new KeyMoment(endTick, endColor, endDimensions, endPosition));
   }
 
   @Override
@@ -179,91 +166,197 @@ abstract class AbstractShape implements Shape {
 
   @Override
   public void removeKeyMomentAt(int tickOfAnimationToRemove) {
-    this.keyMoments.remove(getThisKeyMoment(tickOfAnimationToRemove));
+    int index = indexOfTick(tickOfAnimationToRemove);
+    if (index < 0) {
+      throw new IllegalArgumentException(Shapes.NO_SUCH_KEY_MOMENT);
+    }
+    this.keyMoments.remove(index);
+    System.arraycopy(this.ticks, index + 1, this.ticks, index, this.keyMoments.size() - index);
   }
 
   @Override
   public void addKeyframe(int tick, Position2D pos, Dimensions dim, Color color) {
-    if (tickExists(tick)) {
-      getThisKeyMoment(tick).updateKeyMoment(pos, dim, color);
+    int index = indexOfTick(tick);
+    if (index >= 0) {
+      this.keyMoments.set(index, this.keyMoments.get(index).updateKeyMoment(pos, dim, color));
     } else {
-      addKeyMoment(tick, pos, dim, color);
+      addKeyMoment(-(index + 1), tick, pos, dim, color);
     }
   }
 
   /**
-   * Adds the key moment in the list in the right chronological order.
+   * Adds the key moment in the list at the given index, which keeps the list in chronological
+   * order.
    *
+   * @param index the index to insert the key moment at
    * @param tick  the tick
    * @param pos   the position
-   * @param color the color
    * @param dim   the dimension
+   * @param color the color
    * @throws IllegalArgumentException if either the pos, dim or color is null
    */
-  private void addKeyMoment(int tick, Position2D pos, Dimensions dim, Color color) {
+  private void addKeyMoment(int index, int tick, Position2D pos, Dimensions dim, Color color) {
     if ((pos != null) && (dim != null) && (color != null)) {
-      if (this.keyMoments.isEmpty()) {
-        this.keyMoments.add(new KeyMoment(tick, color, dim, pos));
-      } else {
-        int firstTick = this.keyMoments.get(0).getTick();
-        int lastTick = this.keyMoments.get(this.keyMoments.size() - 1).getTick();
-        if (tick < firstTick) {
-          this.keyMoments.add(0, new KeyMoment(tick, color, dim, pos));
-        } else if (tick > lastTick) {
-          this.keyMoments.add(new KeyMoment(tick, color, dim, pos));
-        } else {
-          for (int i = 0; i < this.keyMoments.size() - 1; i++) {
-            int currentTick = this.keyMoments.get(i).getTick();
-            int afterTick = this.keyMoments.get(i + 1).getTick();
-            if ((tick < afterTick) && (tick > currentTick)) {
-              this.keyMoments.add(i + 1, new KeyMoment(tick, color, dim, pos));
-            }
-          }
-        }
-      }
+      insertKeyMoment(index, new KeyMoment(tick, color, dim, pos));
     } else {
-      throw new IllegalArgumentException("Must have position, dimensions and color");
+      throw new IllegalArgumentException(Shapes.INCOMPLETE_KEYFRAME);
     }
   }
 
   /**
-   * Ensures if this exact tick exists in the list of key moments.
+   * Inserts the given key moment at the given index, keeping the tick index in sync.
+   *
+   * @param index the index to insert the key moment at
+   * @param km    the key moment to insert
+   */
+  private void insertKeyMoment(int index, KeyMoment km) {
+    int size = this.keyMoments.size();
+    if (size == this.ticks.length) {
+      this.ticks = Arrays.copyOf(this.ticks, size + (size >> 1) + 1);
+    }
+    System.arraycopy(this.ticks, index, this.ticks, index + 1, size - index);
+    this.ticks[index] = km.getTick();
+    this.keyMoments.add(index, km);
+  }
+
+  /**
+   * Finds the index of the key moment at this exact tick.
    *
    * @param tick the tick to look for
-   * @return true if the tick exists, false if not
+   * @return the index of the key moment if found, otherwise (-(insertion point) - 1)
    */
-  private KeyMoment getThisKeyMoment(int tick) {
-    for (KeyMoment km : this.keyMoments) {
-      if (km.getTick() == tick) {
-        return km;
+  protected int indexOfTick(int tick) {
+    return Arrays.binarySearch(this.ticks, 0, this.keyMoments.size(), tick);
+  }
+
+  /**
+   * Finds the index of the last key moment whose tick is lesser than or equals to the given tick.
+   *
+   * @param tick the tick to look for
+   * @return the index of the key moment, or -1 if every key moment comes after the given tick
+   */
+  protected int floorIndex(int tick) {
+    int low = 0;
+    int high = this.keyMoments.size() - 1;
+    int found = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (this.ticks[mid] <= tick) {
+        found = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
       }
     }
-    throw new IllegalArgumentException("No such keymoment.");
+    return found;
   }
 
   /**
-   * Ensures if this exact tick exists in the list of key moments.
+   * Finds the key moment the shape is at, or last went through, at the given tick, without
+   * allocating. The shape is exactly at that key moment if their ticks are the same, and in between
+   * that key moment and the next one otherwise.
    *
-   * @param tick the tick to look for
-   * @return true if the tick exists, false if not
+   * @param tick the tick
+   * @return the index of the key moment, or -1 if the shape is not found at the given tick
    */
-  private boolean tickExists(int tick) {
-    for (KeyMoment km : this.keyMoments) {
-      return km.getTick() == tick;
+  protected int indexAtTick(int tick) {
+    int size = this.keyMoments.size();
+    if ((size == 0) || (this.ticks[0] > tick) || (this.ticks[size - 1] < tick)) {
+      return -1;
     }
-    return false;
+    return floorIndex(tick);
   }
 
   /**
-   * Creates a navigable map of all the key moments found in this shape with the tick as the key.
+   * Copies the key moments that are nearest to the given tick, found by {@link #indexAtTick}. If
+   * the given tick is the tick of the key moment at the given index, only that key moment is
+   * copied, otherwise that key moment and the next one are.
    *
-   * @return a navigable map of all the key moments found in this shape with the tick as the key.
+   * @param index the index of the key moment the shape is at or last went through
+   * @param tick  the tick
+   * @return the closest key moments to the given tick.
    */
-  protected NavigableMap<Integer, KeyMoment> makeMap() {
-    NavigableMap<Integer, KeyMoment> hMap = new TreeMap<>();
-    for (KeyMoment k : this.keyMoments) {
-      hMap.put(k.getTick(), k);
+  protected List<KeyMoment> getClosestKeyMoments(int index, int tick) {
+    boolean exact = (this.ticks[index] == tick);
+    List<KeyMoment> keyM = new ArrayList<>(exact ? 1 : 2);
+    keyM.add(this.keyMoments.get(index));
+    if (!exact) {
+      keyM.add(this.keyMoments.get(index + 1));
+    }
+    return keyM;
+  }
+
+  @Override
+  public int getFirstTick() {
+    if (this.keyMoments.isEmpty()) {
+      return -1;
+    }
+    return this.ticks[0];
+  }
+
+  @Override
+  public int getLastTick() {
+    if (this.keyMoments.isEmpty()) {
+      return -1;
+    }
+    return this.ticks[this.keyMoments.size() - 1];
+  }
+
+  @Override
+  public int getKeyMomentCount() {
+    return this.keyMoments.size();
+  }
+
+  @Override
+  public int getTick(int i) {
+    return this.keyMoments.get(i).getTick();
+  }
+
+  @Override
+  public int getX(int i) {
+    return this.keyMoments.get(i).getPos().getX();
+  }
+
+  @Override
+  public int getY(int i) {
+    return this.keyMoments.get(i).getPos().getY();
+  }
+
+  @Override
+  public int getWidth(int i) {
+    return this.keyMoments.get(i).getDimensions().getWidth();
+  }
+
+  @Override
+  public int getHeight(int i) {
+    return this.keyMoments.get(i).getDimensions().getHeight();
+  }
+
+  @Override
+  public int getR(int i) {
+    return this.keyMoments.get(i).getColor().getR();
+  }
+
+  @Override
+  public int getG(int i) {
+    return this.keyMoments.get(i).getColor().getG();
+  }
+
+  @Override
+  public int getB(int i) {
+    return this.keyMoments.get(i).getColor().getB();
+  }
+
+  @Override
+  public void sampleInto(int tick, FrameBuffer out) {
+    int floor = indexAtTick(tick);
+    if (floor < 0) {
+      return;
+    }
+    if (this.ticks[floor] == tick) {
+      this.keyMoments.get(floor).writeTo(getType(), out);
+    } else {
+      this.keyMoments.get(floor).writeTweenTo(this.keyMoments.get(floor + 1), tick, getType(), out);
     }
-    return hMap;
   }
 }
@@ -0,0 +1,207 @@
+package cs3500.animator.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Follows a file in the textual format that another program keeps appending to. The file is kept
+ * open, and every poll parses only the bytes appended since the last poll and passes them to a
+ * builder, which is usually adding to a live model. Only complete lines are parsed, and a line
+ * that may continue in bytes not yet appended is left for the next poll.
+ */
+public final class AnimationFollower {
+
+  // most bytes parsed at once, so a large file is caught up with in pieces
+  private static final int WINDOW = 1 << 24;
+
+  private final FileChannel channel;
+  private final Tracker tracker;
+  // filter of the motions kept across polls, so a motion it dropped is never passed on later
+  private final MotionFilter filter;
+  // offset of the first byte not applied yet
+  private long position;
+
+  /**
+   * Constructs an AnimationFollower reading the given file from its start.
+   *
+   * @param file    the file to follow
+   * @param builder the builder to pass what is read to
+   * @throws IOException if the file cannot be opened.
+   */
+  public AnimationFollower(Path file, AnimationBuilder<?> builder) throws IOException {
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.tracker = new Tracker(builder);
+    this.filter = new MotionFilter(name -> this.tracker.lineDropped());
+  }
+
+  /**
+   * Parses every complete line appended to the file since the last poll and passes it to the
+   * builder. A malformed line, or a line the builder rejects, is skipped once reported, so
+   * following can go on with the lines after it.
+   *
+   * @return the number of lines passed to the builder.
+   * @throws IllegalStateException    if a line is malformed, the file cannot be read or it was
+   *                                  truncated.
+   * @throws IllegalArgumentException if the builder rejects a line.
+   */
+  public synchronized int poll() {
+    int applied = 0;
+    try {
+      long size = this.channel.size();
+      if (size < this.position) {
+        throw new IllegalStateException("The followed file was truncated");
+      }
+      while (this.position < size) {
+        ByteBuffer window = ByteBuffer.allocate((int) Math.min(WINDOW, size - this.position));
+        int read = 0;
+        while (window.hasRemaining() && (read >= 0)) {
+          read = this.channel.read(window, this.position + window.position());
+        }
+        int complete = window.position();
+        while ((complete > 0) && (window.get(complete - 1) != '\n')) {
+          complete--;
+        }
+        if (complete == 0) {
+          break;
+        }
+        window.flip();
+        window.limit(complete);
+        int before = this.tracker.count;
+        boolean progressed = parse(window, complete);
+        applied += this.tracker.count - before;
+        if (!progressed) {
+          break;
+        }
+      }
+    } catch (IOException ioe) {
+      throw new IllegalStateException("Cannot read input: " + ioe.getMessage());
+    }
+    return applied;
+  }
+
+  /**
+   * Parses the complete lines in the given window, and moves past every line applied.
+   *
+   * @param window   the bytes read from the current position
+   * @param complete the number of bytes up to the end of the last complete line
+   * @return true if the position moved.
+   */
+  private boolean parse(ByteBuffer window, int complete) {
+    AnimationLexer lexer = new AnimationLexer(window.duplicate());
+    this.tracker.lexer = lexer;
+    this.tracker.end = 0;
+    try {
+      AnimationReader.parseInto(lexer, this.tracker, this.filter);
+    } catch (IllegalStateException e) {
+      // the last line may go on in bytes not appended yet, which is not an error
+      if (lexer.offset() < complete) {
+        this.position += skipLine(window, lexer.offset());
+        throw e;
+      }
+    } catch (IllegalArgumentException e) {
+      // the motion rejected must not keep the motion after it from being passed on
+      this.filter.forget();
+      this.position += this.tracker.end;
+      throw e;
+    }
+    this.position += this.tracker.end;
+    return this.tracker.end > 0;
+  }
+
+  /**
+   * Finds the end of the line holding the given offset.
+   *
+   * @param window the bytes read from the current position
+   * @param offset the offset in the window
+   * @return the offset just after the end of the line.
+   */
+  private static long skipLine(ByteBuffer window, long offset) {
+    int i = (int) offset;
+    while ((i < window.limit()) && (window.get(i) != '\n')) {
+      i++;
+    }
+    return Math.min(i + 1, window.limit());
+  }
+
+  /**
+   * Closes the followed file.
+   *
+   * @throws IOException if the file cannot be closed.
+   */
+  public synchronized void close() throws IOException {
+    this.channel.close();
+  }
+
+  /**
+   * Passes every call on to a builder, recording where the line of the last call ends.
+   */
+  private static final class Tracker implements AnimationBuilder<Void> {
+    private final AnimationBuilder<?> builder;
+    private AnimationLexer lexer;
+    // offset the last line passed on ends at, from where the lexer started
+    private long end;
+    private int count;
+
+    private Tracker(AnimationBuilder<?> builder) {
+      this.builder = builder;
+    }
+
+    /**
+     * Records that a line was read, before it is passed on, so a line the builder rejects is
+     * not read again.
+     */
+    private void lineRead() {
+      this.end = this.lexer.offset();
+      this.count++;
+    }
+
+    /**
+     * Records that a line was read and dropped by the filter, so it is not read again.
+     */
+    private void lineDropped() {
+      this.end = this.lexer.offset();
+    }
+
+    @Override
+    public Void build() {
+      return null;
+    }
+
+    @Override
+    public AnimationBuilder<Void> setBounds(int x, int y, int width, int height) {
+      lineRead();
+      this.builder.setBounds(x, y, width, height);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Void> declareShape(String name, String type) {
+      lineRead();
+      this.builder.declareShape(name, type);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Void> addMotion(String name, int t1, int x1, int y1, int w1, int h1,
+                                            int r1, int g1, int b1, int t2, int x2, int y2,
+                                            int w2, int h2, int r2, int g2, int b2) {
+      lineRead();
+      this.builder.addMotion(name, t1, x1, y1, w1, h1, r1, g1, b1, t2, x2, y2, w2, h2, r2, g2,
+              b2);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Void> addKeyframe(String name, int t, int x, int y, int w, int h,
+                                              int r, int g, int b) {
+      lineRead();
+      this.builder.addKeyframe(name, t, x, y, w, h, r, g, b);
+      return this;
+    }
+  }
+}
@@ -7,18 +7,23 @@ import java.awt.Dimension;
 import javax.swing.JFrame;
 
 import javax.swing.JScrollPane;
+import javax.swing.Timer;
 
 import cs3500.animator.model.ReadOnlyAnimationModel;
 
 /**
  * This is an implementation of the IVisualView interface that uses Java Swing to draw the results
  * of the animation on the panel. It draws all the shapes found in the model and is the visual
- * representation of the model.
+ * representation of the model. Once visible, it plays the animation at the tempo given, moving the
+ * panel on about sixty times a second whatever the tempo, which repaints only what changed.
  */
 public class AnimationGraphicsView extends JFrame implements IVisualView {
 
+  private static final int FRAME_MILLIS = 16;
 
   protected AnimationPanel animationPanel;
+  // repaints the panel while the animation plays
+  private final Timer frameTimer;
 
 
   /**
@@ -29,7 +34,8 @@ public class AnimationGraphicsView extends JFrame implements IVisualView {
    */
   public AnimationGraphicsView(ReadOnlyAnimationModel m, int ticksPerSec) {
     super();
-    animationPanel = new AnimationPanel(m, 0);
+    animationPanel = new AnimationPanel(m, 0, ticksPerSec);
+    frameTimer = new Timer(FRAME_MILLIS, e -> animationPanel.showCurrentTick());
 
     this.setTitle("Simple Animation");
     this.setSize(1000, 1000);
@@ -48,13 +54,31 @@ public class AnimationGraphicsView extends JFrame implements IVisualView {
   @Override
   public void refresh() {
     animationPanel.setEndTick();
-    animationPanel.repaint();
-    this.repaint();
+    // only what changed is repainted, or everything if the model changed
+    animationPanel.showCurrentTick();
   }
 
   @Override
   public void makeVisible() {
     this.setVisible(true);
+    play();
+  }
+
+  /**
+   * Starts playing the animation from the current tick.
+   */
+  public void play() {
+    animationPanel.play();
+    frameTimer.start();
+  }
+
+  /**
+   * Pauses the animation at the current tick.
+   */
+  public void pause() {
+    animationPanel.pause();
+    frameTimer.stop();
+    animationPanel.showCurrentTick();
   }
 
 
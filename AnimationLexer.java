@@ -0,0 +1,331 @@
+package cs3500.animator.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits animation input into words directly from its bytes. Words are separated by whitespace,
+ * and a # starts a comment running to the end of its line, just as the delimiter used by
+ * {@link AnimationReader#parseFile} splits them. The current word is kept in a buffer reused for
+ * every word, and integers are parsed from it in place, so nothing is allocated per word except
+ * the strings the caller asks for.
+ */
+final class AnimationLexer {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final InputStream in;
+  private final ByteBuffer source;
+  private final byte[] buffer;
+  private int position;
+  private int limit;
+  // bytes read before the buffer was last filled
+  private long consumed;
+  private byte[] word;
+  private int wordLength;
+  // every name read, in an open-addressing table keyed by the bytes of the name
+  private byte[][] nameKeys;
+  private String[] names;
+  private int nameCount;
+  // slot of the last name read, checked first since the motions of a shape usually follow one
+  // another
+  private int lastName;
+
+  /**
+   * Constructs an AnimationLexer reading from the given stream.
+   *
+   * @param in the stream to read from
+   */
+  AnimationLexer(InputStream in) {
+    this(in, null);
+  }
+
+  /**
+   * Constructs an AnimationLexer reading the remaining bytes of the given buffer, such as a
+   * region of a memory-mapped file.
+   *
+   * @param source the buffer to read from
+   */
+  AnimationLexer(ByteBuffer source) {
+    this(null, source);
+  }
+
+  /**
+   * Constructs an AnimationLexer reading from either a stream or a buffer.
+   *
+   * @param in     the stream to read from, or null
+   * @param source the buffer to read from, or null
+   */
+  private AnimationLexer(InputStream in, ByteBuffer source) {
+    this.in = in;
+    this.source = source;
+    this.buffer = new byte[BUFFER_SIZE];
+    this.word = new byte[64];
+    this.nameKeys = new byte[64][];
+    this.names = new String[64];
+    this.lastName = -1;
+  }
+
+  /**
+   * Returns the next byte without consuming it.
+   *
+   * @return the next byte, or -1 if no more input is available.
+   */
+  private int peek() {
+    if (this.position == this.limit && this.source != null) {
+      int read = Math.min(this.source.remaining(), this.buffer.length);
+      if (read == 0) {
+        return -1;
+      }
+      this.source.get(this.buffer, 0, read);
+      this.consumed += this.limit;
+      this.position = 0;
+      this.limit = read;
+    } else if (this.position == this.limit) {
+      try {
+        int read = this.in.read(this.buffer, 0, this.buffer.length);
+        while (read == 0) {
+          read = this.in.read(this.buffer, 0, this.buffer.length);
+        }
+        if (read < 0) {
+          return -1;
+        }
+        this.consumed += this.limit;
+        this.position = 0;
+        this.limit = read;
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot read input: " + e.getMessage());
+      }
+    }
+    return this.buffer[this.position] & 0xFF;
+  }
+
+  /**
+   * Gets the number of bytes read so far, which is the offset of the next byte from where the
+   * lexer started.
+   *
+   * @return the number of bytes read.
+   */
+  long offset() {
+    return this.consumed + this.position;
+  }
+
+  /**
+   * Determines if the given byte separates words.
+   *
+   * @param c the byte
+   * @return true if the byte is whitespace.
+   */
+  private static boolean isSpace(int c) {
+    return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == 0x0B || c == '\f';
+  }
+
+  /**
+   * Skips whitespace and comments.
+   *
+   * @return true if another word follows.
+   */
+  boolean hasNext() {
+    while (true) {
+      int c = peek();
+      if (c < 0) {
+        return false;
+      } else if (isSpace(c)) {
+        this.position++;
+      } else if (c == '#') {
+        while (c >= 0 && c != '\n' && c != '\r') {
+          this.position++;
+          c = peek();
+        }
+      } else {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Reads the next word into the word buffer.
+   *
+   * @return true if a word was read, false if no more input is available.
+   */
+  boolean next() {
+    if (!hasNext()) {
+      return false;
+    }
+    this.wordLength = 0;
+    int c = peek();
+    while (c >= 0 && !isSpace(c) && c != '#') {
+      if (this.wordLength == this.word.length) {
+        byte[] grown = new byte[this.word.length * 2];
+        System.arraycopy(this.word, 0, grown, 0, this.wordLength);
+        this.word = grown;
+      }
+      this.word[this.wordLength++] = (byte) c;
+      this.position++;
+      c = peek();
+    }
+    return true;
+  }
+
+  /**
+   * Determines if the word last read is the given keyword.
+   *
+   * @param keyword the keyword, in ASCII
+   * @return true if the word is the keyword.
+   */
+  boolean wordIs(String keyword) {
+    if (this.wordLength != keyword.length()) {
+      return false;
+    }
+    for (int i = 0; i < this.wordLength; i++) {
+      if (this.word[i] != keyword.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the word last read.
+   *
+   * @return the word.
+   */
+  String word() {
+    return new String(this.word, 0, this.wordLength, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the word last read as a name. Every name is decoded once, when it is first read, and
+   * the same string is returned every time the name is read again, so the name of a shape is
+   * shared by its declaration and all its motions.
+   *
+   * @return the word.
+   */
+  String name() {
+    if ((this.lastName >= 0) && wordEquals(this.nameKeys[this.lastName])) {
+      return this.names[this.lastName];
+    }
+    int hash = 0;
+    for (int i = 0; i < this.wordLength; i++) {
+      hash = 31 * hash + this.word[i];
+    }
+    int mask = this.nameKeys.length - 1;
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    while (this.nameKeys[slot] != null) {
+      if (wordEquals(this.nameKeys[slot])) {
+        this.lastName = slot;
+        return this.names[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    if (2 * (this.nameCount + 1) > this.nameKeys.length) {
+      growNames();
+      return name();
+    }
+    this.nameKeys[slot] = Arrays.copyOf(this.word, this.wordLength);
+    this.names[slot] = word();
+    this.nameCount++;
+    this.lastName = slot;
+    return this.names[slot];
+  }
+
+  /**
+   * Determines if the word last read has the given bytes.
+   *
+   * @param bytes the bytes
+   * @return true if the word has the bytes.
+   */
+  private boolean wordEquals(byte[] bytes) {
+    if (bytes.length != this.wordLength) {
+      return false;
+    }
+    for (int i = 0; i < this.wordLength; i++) {
+      if (this.word[i] != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Doubles the table of names.
+   */
+  private void growNames() {
+    byte[][] oldKeys = this.nameKeys;
+    String[] oldNames = this.names;
+    this.nameKeys = new byte[oldKeys.length * 2][];
+    this.names = new String[oldKeys.length * 2];
+    this.lastName = -1;
+    int mask = this.nameKeys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      byte[] key = oldKeys[i];
+      if (key == null) {
+        continue;
+      }
+      int hash = 0;
+      for (byte b : key) {
+        hash = 31 * hash + b;
+      }
+      int slot = (hash ^ (hash >>> 16)) & mask;
+      while (this.nameKeys[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      this.nameKeys[slot] = key;
+      this.names[slot] = oldNames[i];
+    }
+  }
+
+  /**
+   * Parses the word last read as a decimal integer.
+   *
+   * @return the integer.
+   * @throws NumberFormatException if the word is not an integer.
+   */
+  int wordAsInt() {
+    int i = 0;
+    boolean negative = false;
+    if (this.wordLength > 1 && (this.word[0] == '-' || this.word[0] == '+')) {
+      negative = this.word[0] == '-';
+      i = 1;
+    }
+    if (i == this.wordLength) {
+      throw new NumberFormatException();
+    }
+    // accumulate negatively, so the smallest integer does not overflow
+    long value = 0;
+    for (; i < this.wordLength; i++) {
+      int digit = this.word[i] - '0';
+      if (digit < 0 || digit > 9) {
+        throw new NumberFormatException();
+      }
+      value = value * 10 - digit;
+      if (value < Integer.MIN_VALUE) {
+        throw new NumberFormatException();
+      }
+    }
+    if (!negative && value == Integer.MIN_VALUE) {
+      throw new NumberFormatException();
+    }
+    return (int) (negative ? value : -value);
+  }
+
+  /**
+   * Reads the rest of the current line, without its line terminator.
+   *
+   * @return the rest of the line.
+   */
+  String restOfLine() {
+    ByteArrayOutputStream rest = new ByteArrayOutputStream();
+    int c = peek();
+    while (c >= 0 && c != '\n' && c != '\r') {
+      rest.write(c);
+      this.position++;
+      c = peek();
+    }
+    return new String(rest.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,172 @@
+package cs3500.animator.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import cs3500.animator.model.SimpleAnimation;
+import cs3500.animator.model.VersionedAnimation;
+
+/**
+ * Reads an animation file into a model on a background thread, so the model can be viewed while
+ * it is read. What is read is published to the model in batches, at most a given number of
+ * milliseconds apart, and the first lines are published as soon as they are read, so a view of
+ * the model shows what has arrived so far right away. As with {@link SimpleAnimation.Builder},
+ * the motions of every shape must be given in the order of their ticks.
+ */
+public final class AnimationLoader {
+
+  // lines read between looks at the clock
+  private static final int CHECK_LINES = 1024;
+
+  private final Path file;
+  private final VersionedAnimation model;
+  private final long publishNanos;
+  private volatile boolean done;
+  private volatile RuntimeException failure;
+  private volatile long elapsedNanos;
+
+  /**
+   * Constructs an AnimationLoader reading the given file into the given model.
+   *
+   * @param file   the file to read
+   * @param model  the model to read into, usually empty
+   * @param millis the most milliseconds between two batches
+   */
+  public AnimationLoader(Path file, VersionedAnimation model, int millis) {
+    this.file = Objects.requireNonNull(file, "Must have non-null file");
+    this.model = Objects.requireNonNull(model, "Must have non-null model");
+    this.publishNanos = millis * 1_000_000L;
+  }
+
+  /**
+   * Starts reading the file on a new daemon thread.
+   *
+   * @param published run on the reading thread after every batch is published, including the
+   *                  last one
+   */
+  public void start(Runnable published) {
+    Thread reader = new Thread(() -> load(published), "load");
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  /**
+   * Reads the whole file, publishing what was read in batches. What was read before a failure is
+   * published, and the failure is kept.
+   *
+   * @param published run after every batch is published
+   */
+  private void load(Runnable published) {
+    long start = System.nanoTime();
+    this.model.beginBatch();
+    try {
+      AnimationReader.parseFile(this.file, new Publisher(published));
+    } catch (IOException e) {
+      this.failure = new IllegalStateException("File cannot be found");
+    } catch (IllegalStateException | IllegalArgumentException e) {
+      this.failure = e;
+    } finally {
+      this.model.endBatch();
+      this.elapsedNanos = System.nanoTime() - start;
+      this.done = true;
+      published.run();
+    }
+  }
+
+  /**
+   * Determines if the whole file was read, or reading it failed.
+   *
+   * @return true if reading is over.
+   */
+  public boolean isDone() {
+    return this.done;
+  }
+
+  /**
+   * Gets why reading the file failed.
+   *
+   * @return the failure, or null if reading has not failed.
+   */
+  public RuntimeException getFailure() {
+    return this.failure;
+  }
+
+  /**
+   * Gets how long reading the file took, apart from anything the model was viewed with.
+   *
+   * @return the nanoseconds reading took, or 0 if it is not over.
+   */
+  public long getElapsedNanos() {
+    return this.elapsedNanos;
+  }
+
+  /**
+   * Passes every call on to a builder adding to the model, and publishes a batch once enough time
+   * went by since the last one.
+   */
+  private final class Publisher implements AnimationBuilder<Void> {
+    private final AnimationBuilder<?> builder;
+    private final Runnable published;
+    private int lines;
+    // when the last batch was published, or 0 before the first one
+    private long last;
+
+    private Publisher(Runnable published) {
+      this.builder = new SimpleAnimation.Builder(model);
+      this.published = published;
+    }
+
+    /**
+     * Counts a line passed on, and publishes a batch if it is time to.
+     */
+    private void lineRead() {
+      if (++this.lines % CHECK_LINES != 0) {
+        return;
+      }
+      long now = System.nanoTime();
+      if ((this.last == 0) || (now - this.last >= publishNanos)) {
+        model.publishBatch();
+        this.last = now;
+        this.published.run();
+      }
+    }
+
+    @Override
+    public Void build() {
+      return null;
+    }
+
+    @Override
+    public AnimationBuilder<Void> setBounds(int x, int y, int width, int height) {
+      this.builder.setBounds(x, y, width, height);
+      lineRead();
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Void> declareShape(String name, String type) {
+      this.builder.declareShape(name, type);
+      lineRead();
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Void> addMotion(String name, int t1, int x1, int y1, int w1, int h1,
+                                            int r1, int g1, int b1, int t2, int x2, int y2,
+                                            int w2, int h2, int r2, int g2, int b2) {
+      this.builder.addMotion(name, t1, x1, y1, w1, h1, r1, g1, b1, t2, x2, y2, w2, h2, r2, g2,
+              b2);
+      lineRead();
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Void> addKeyframe(String name, int t, int x, int y, int w, int h,
+                                              int r, int g, int b) {
+      this.builder.addKeyframe(name, t, x, y, w, h, r, g, b);
+      lineRead();
+      return this;
+    }
+  }
+}
@@ -1,41 +1,71 @@
 package cs3500.animator.view;
 
+import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
 import javax.swing.JPanel;
 
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Color;
-import java.util.List;
 
-import cs3500.animator.model.KeyMoment;
-import cs3500.animator.model.Oval;
-import cs3500.animator.model.Shape;
+import cs3500.animator.model.FrameBuffer;
 import cs3500.animator.model.ReadOnlyAnimationModel;
 
 /**
- * This panel represents the region where the shapes are to be drawn.
+ * This panel represents the region where the shapes are to be drawn. The tick drawn is told by a
+ * {@link PlaybackClock}, so painting the panel any number of times does not move the animation
+ * on, and a fraction of a tick is drawn by moving every shape that far towards where it is at
+ * the next tick. Moving the panel on to the current tick only repaints the area of the shapes
+ * that changed since the tick shown before, and the rest of the panel is kept as it was painted.
+ * Whole ticks shown more than once are drawn once into images kept in a {@link FrameCache}, so
+ * ticks drawn again when scrubbing or looping are drawn from memory.
  */
 public class AnimationPanel extends JPanel {
 
+  // below this tempo, the fractions of ticks are drawn, since ticks are several frames apart
+  private static final double SMOOTH_BELOW = 30;
+  private static final long CACHE_BUDGET = Math.min(Runtime.getRuntime().maxMemory() / 4,
+          256L << 20);
+
   private ReadOnlyAnimationModel model;
-  private int tick;
+  private final PlaybackClock clock;
   private boolean looping;
   private int endTick;
+  // the state of the shapes at the tick shown, and at the tick shown before it, reused between
+  // frames so painting does not allocate per shape
+  private FrameBuffer shown;
+  private FrameBuffer previous;
+  private final FrameBuffer next;
+  private double shownTick;
+  private long shownVersion;
+  private int[] shownCanvas;
+  // true if the tick shown was shown before, so its frame is worth keeping
+  private boolean shownBefore;
+  private final FrameCache cache;
+  private final FrameRenderer renderer;
 
   /**
-   * Constructs an animation panel with a read only model and starting tick.
+   * Constructs an animation panel with a read only model and starting tick, paused.
    *
-   * @param model read only animation model used for this animation
-   * @param tick  starting tick
+   * @param model       read only animation model used for this animation
+   * @param tick        starting tick
+   * @param ticksPerSec the tempo for the animation which the user indicates
    */
-  public AnimationPanel(ReadOnlyAnimationModel model, int tick) {
+  public AnimationPanel(ReadOnlyAnimationModel model, int tick, int ticksPerSec) {
     super();
     this.model = model;
-    this.tick = tick;
+    this.clock = new PlaybackClock(tick, ticksPerSec);
     this.looping = false;
+    this.shown = new FrameBuffer();
+    this.previous = new FrameBuffer();
+    this.next = new FrameBuffer();
+    this.cache = new FrameCache(CACHE_BUDGET);
+    this.renderer = new FrameRenderer();
     this.setEndTick();
+    this.showCurrentTick();
   }
 
   @Override
@@ -44,95 +74,186 @@ public class AnimationPanel extends JPanel {
     Graphics2D g2d = (Graphics2D) g;
     setBackground(Color.WHITE);
     AffineTransform transform = g2d.getTransform();
-    drawShapes(g2d);
-    g2d.setTransform(transform);
-    if ((this.endTick <= this.tick) && this.looping) {
-      setTickToZero();
+    int whole = (int) Math.floor(this.shownTick);
+    BufferedImage image = null;
+    if (this.shownTick == whole) {
+      image = getFrame(whole);
+    }
+    if (image != null) {
+      g2d.drawImage(image, 0, 0, null);
     } else {
-      tick = tick + 1;
+      drawShapes(g2d, this.shown);
     }
+    g2d.setTransform(transform);
   }
 
   /**
-   * Draws all the shapes that should be displayed at the current tick on the panel.
-   *
-   * @param g2d the graphics to draw the shapes into
+   * Moves the panel on to the tick the clock tells, and repaints the area of the shapes that
+   * changed since the tick shown before. The whole panel is repainted if the model changed.
    */
-  protected void drawShapes(Graphics2D g2d) {
-    for (Shape s : model.getShapesAtTick(tick)) {
-      if (s != null) {
-        int posX;
-        int posY;
-        int width;
-        int height;
-        int r;
-        int g;
-        int b;
-        // tweening is needed
-        if (s.getKeyMoments().size() > 1) {
-          KeyMoment initial = s.getKeyMoments().get(0);
-          KeyMoment next = s.getKeyMoments().get(1);
-          posX = (int) tweening(initial.getTick(), initial.getPos().getX(), next.getTick(),
-              next.getPos().getX()) - model.getCanvasDimensions()[0];
-          posY = (int) tweening(initial.getTick(), initial.getPos().getY(), next.getTick(),
-              next.getPos().getY()) - model.getCanvasDimensions()[1];
-          width = (int) tweening(initial.getTick(), initial.getDimensions().getWidth(),
-              next.getTick(),
-              next.getDimensions().getWidth());
-          height = (int) tweening(initial.getTick(), initial.getDimensions().getHeight(),
-              next.getTick(), next.getDimensions().getHeight());
-          r = (int) tweening(initial.getTick(), initial.getColor().getR(), next.getTick(),
-              next.getColor().getR());
-          g = (int) tweening(initial.getTick(), initial.getColor().getG(), next.getTick(),
-              next.getColor().getG());
-          b = (int) tweening(initial.getTick(), initial.getColor().getB(), next.getTick(),
-              next.getColor().getB());
-          // tweening is not needed
-        } else {
-          KeyMoment initial = s.getKeyMoments().get(0);
-          posX = initial.getPos().getX() - model.getCanvasDimensions()[0];
-          posY = initial.getPos().getY() - model.getCanvasDimensions()[1];
-          width = initial.getDimensions().getWidth();
-          height = initial.getDimensions().getHeight();
-          r = initial.getColor().getR();
-          g = initial.getColor().getG();
-          b = initial.getColor().getB();
-        }
+  void showCurrentTick() {
+    double tick = clock.getTick();
+    if ((this.endTick < tick) && this.looping) {
+      clock.setTick(0);
+      tick = 0;
+    }
+    int whole = (int) Math.floor(tick);
+    if (clock.getTicksPerSecond() >= SMOOTH_BELOW) {
+      tick = whole;
+    }
+    long version = model.getVersion();
+    int[] canvas = model.getCanvasDimensions();
+    FrameBuffer swap = this.previous;
+    this.previous = this.shown;
+    this.shown = swap;
+    model.sampleFrame(whole, this.shown);
+    if (tick > whole) {
+      model.sampleFrame(whole + 1, this.next);
+      this.shown.interpolate(this.next, tick - whole);
+    }
+    boolean changed = (version != this.shownVersion) || !Arrays.equals(canvas, this.shownCanvas);
+    boolean moved = (tick != this.shownTick);
+    this.shownVersion = version;
+    this.shownCanvas = canvas;
+    this.shownTick = tick;
+    if (changed || moved) {
+      this.shownBefore = (tick == whole) && cache.markShown(version, whole);
+    }
+    if (changed) {
+      repaint();
+    } else if (moved) {
+      Rectangle area = changedArea(this.previous, this.shown);
+      if (area != null) {
+        area.translate(-canvas[0], -canvas[1]);
+        repaint(area);
+      }
+    }
+  }
 
-        if (s instanceof Oval) {
-          g2d.setColor(new Color(r, g, b));
-          g2d.fillOval(posX, posY, width, height);
-        } else {
-          g2d.setColor(new Color(r, g, b));
-          g2d.fillRect(posX, posY, width, height);
+  /**
+   * Finds the smallest rectangle holding every shape whose state differs between two frames, both
+   * where it was and where it is.
+   *
+   * @param before the frame shown before
+   * @param after  the frame shown now
+   * @return the area in the coordinates of the animation, or null if no shape changed.
+   */
+  private static Rectangle changedArea(FrameBuffer before, FrameBuffer after) {
+    Rectangle area = null;
+    int i = 0;
+    int j = 0;
+    // both frames are in increasing order of the identifiers of their shapes
+    while ((i < before.size()) || (j < after.size())) {
+      int idBefore = (i < before.size()) ? before.getId(i) : Integer.MAX_VALUE;
+      int idAfter = (j < after.size()) ? after.getId(j) : Integer.MAX_VALUE;
+      if (idBefore == idAfter) {
+        if ((before.getX(i) != after.getX(j)) || (before.getY(i) != after.getY(j))
+                || (before.getWidth(i) != after.getWidth(j))
+                || (before.getHeight(i) != after.getHeight(j))
+                || (before.getRGB(i) != after.getRGB(j))) {
+          area = include(area, before, i);
+          area = include(area, after, j);
         }
+        i++;
+        j++;
+      } else if (idBefore < idAfter) {
+        area = include(area, before, i++);
+      } else {
+        area = include(area, after, j++);
       }
     }
+    return area;
   }
 
   /**
-   * Calculates the intermediate states of the shape at the current tick if the tick is in between
-   * two key moments of a shape. Using linear interpolation, we are able to find all the
-   * intermediate states of all components (color, dimensions and position).
+   * Grows the given area to hold the given shape, with a pixel to spare for rounding.
    *
-   * @param tick1   initial tick,  the tick of the key moment that has the greatest tick lesser than
-   *                or equals to the current tick
-   * @param initial initial component
-   * @param tick2   next tick, the tick of the key moment that has the least tick greater than or
-   *                equals to the current tick
-   * @param next    next component
-   * @return the intermediate state
+   * @param area  the area, or null if it is empty
+   * @param frame the frame holding the shape
+   * @param i     the index of the shape in the frame
+   * @return the grown area.
    */
-  private double tweening(int tick1, int initial, int tick2, int next) {
-    return (initial * ((float) (tick2 - tick) / (tick2 - tick1)))
-        + (next * ((float) (tick - tick1) / (tick2 - tick1)));
+  private static Rectangle include(Rectangle area, FrameBuffer frame, int i) {
+    Rectangle box = new Rectangle(frame.getX(i), frame.getY(i), frame.getWidth(i) + 1,
+            frame.getHeight(i) + 1);
+    if (area == null) {
+      return box;
+    }
+    area.add(box);
+    return area;
+  }
+
+  /**
+   * Gets the image of the given tick, which is the tick shown, drawing it if it is shown again
+   * and is not kept or is too small for the panel. The image covers the shapes of the animation
+   * as far as the panel shows them.
+   *
+   * @param tick the tick
+   * @return the image of the tick, or null if it is not worth keeping.
+   */
+  private BufferedImage getFrame(int tick) {
+    int[] bounds = model.getBounds();
+    int width = Math.max(1, Math.min(getWidth(), bounds[0] + bounds[2] - shownCanvas[0]));
+    int height = Math.max(1, Math.min(getHeight(), bounds[1] + bounds[3] - shownCanvas[1]));
+    BufferedImage image = cache.get(shownVersion, tick);
+    if ((image != null) && (image.getWidth() >= width) && (image.getHeight() >= height)) {
+      return image;
+    } else if (!shownBefore) {
+      return null;
+    }
+    // a frame the cache dropped is drawn over, as it is filled entirely
+    image = cache.take(width, height);
+    if (image == null) {
+      image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+    Graphics2D g2d = image.createGraphics();
+    g2d.setColor(Color.WHITE);
+    g2d.fillRect(0, 0, width, height);
+    drawShapes(g2d, shown);
+    g2d.dispose();
+    cache.put(shownVersion, tick, image);
+    return image;
+  }
+
+  /**
+   * Draws all the shapes of the given frame on the panel.
+   *
+   * @param g2d   the graphics to draw the shapes into
+   * @param frame the state of the shapes to draw
+   */
+  protected void drawShapes(Graphics2D g2d, FrameBuffer frame) {
+    renderer.draw(g2d, frame, shownCanvas);
   }
 
   /**
    * Sets the current tick to zero.
    */
   void setTickToZero() {
-    this.tick = 0;
+    clock.setTick(0);
+    showCurrentTick();
+  }
+
+  /**
+   * Starts playing the animation from the current tick.
+   */
+  void play() {
+    clock.start();
+  }
+
+  /**
+   * Pauses the animation at the current tick.
+   */
+  void pause() {
+    clock.pause();
+  }
+
+  /**
+   * Changes the tempo of the animation from the current tick on.
+   *
+   * @param ticksPerSec the number of ticks per second
+   */
+  void setTicksPerSecond(double ticksPerSec) {
+    clock.setTicksPerSecond(ticksPerSec);
   }
 
   /**
@@ -153,25 +274,15 @@ public class AnimationPanel extends JPanel {
    * Finds the end tick of the overall animation and sets end tick to that tick.
    */
   void setEndTick() {
-    int largestTick = 0;
-    for (Shape s : model.getShapesInModel()) {
-      List<KeyMoment> km = s.getKeyMoments();
-      if (km.size() > 0) {
-
-        int thisTick = km.get(km.size() - 1).getTick();
-        if (thisTick > largestTick) {
-          largestTick = thisTick;
-        }
-      }
-    }
-    this.endTick = largestTick;
+    this.endTick = Math.max(model.getLastTick(), 0);
   }
 
   void setTick(int i) {
-    this.tick = i;
+    clock.setTick(i);
+    showCurrentTick();
   }
 
   public int getCurrentTick() {
-    return tick;
+    return (int) Math.floor(clock.getTick());
   }
-}
\ No newline at end of file
+}
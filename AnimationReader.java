@@ -1,13 +1,53 @@
 package cs3500.animator.util;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.Objects;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.GZIPInputStream;
 import java.util.regex.Pattern;
 
 /**
  * A helper to read animation data and construct an animation from it.
  */
 public class AnimationReader {
+
+  // smallest and largest chunks a mapped file is split into
+  private static final long MIN_CHUNK = 1 << 20;
+  private static final long MAX_CHUNK = 1 << 28;
+
+  private static final String[] CANVAS_FIELDS = {"left", "top", "width", "height"};
+
+  private static final String[] KEYFRAME_FIELDS = {
+    "time", "x-coordinate", "y-coordinate", "width", "height",
+    "red value", "green value", "blue value",
+  };
+
+  private static final String[] MOTION_FIELDS = {
+    "initial time",
+    "initial x-coordinate", "initial y-coordinate",
+    "initial width", "initial height",
+    "initial red value", "initial green value", "initial blue value",
+    "final time",
+    "final x-coordinate", "final y-coordinate",
+    "final width", "final height",
+    "final red value", "final green value", "final blue value",
+  };
+
   /**
    * A factory for producing new animations, given a source of shapes and a
    * builder for constructing animations.
@@ -23,6 +63,11 @@ public class AnimationReader {
    * eight numbers giving the time, the x and y coordinates, the width and height,
    * and the red, green and blue color values at the start of the motion; followed by 
    * eight numbers for the end of the motion.  See {@link AnimationBuilder#addMotion}</li>
+   * <li>Keyframe lines: the keyword "keyframe" followed by an identifier giving the name
+   * of the shape, and 8 integers giving the time, the x and y coordinates, the width and height,
+   * and the red, green and blue color values of the shape at that time. Consecutive keyframes
+   * describe the same animation as the motion between them, in half the numbers.
+   * See {@link AnimationBuilder#addKeyframe}</li>
    * </ul>
    * </p>
    *
@@ -37,6 +82,7 @@ public class AnimationReader {
     Scanner s = new Scanner(readable);
     // Split at whitespace, and ignore # comment lines
     s.useDelimiter(Pattern.compile("(\\p{Space}+|#.*)+")); 
+    MotionFilter filter = new MotionFilter();
     while (s.hasNext()) {
       String word = s.next();
       switch (word) {
@@ -44,10 +90,13 @@ public class AnimationReader {
           readCanvas(s, builder);
           break;
         case "shape":
-          readShape(s, builder);
+          readShape(s, builder, filter);
           break;
         case "motion":
-          readMotion(s, builder);
+          readMotion(s, builder, filter);
+          break;
+        case "keyframe":
+          readKeyframe(s, builder);
           break;
         default:
           throw new IllegalStateException("Unexpected keyword: " + word + s.nextLine());
@@ -58,14 +107,14 @@ public class AnimationReader {
 
   private static <Doc> void readCanvas(Scanner s, AnimationBuilder<Doc> builder) {
     int[] vals = new int[4];
-    String[] fieldNames = {"left", "top", "width", "height"};
     for (int i = 0; i < 4; i++) {
-      vals[i] = getInt(s, "Canvas", fieldNames[i]);
+      vals[i] = getInt(s, "Canvas", CANVAS_FIELDS[i]);
     }
     builder.setBounds(vals[0], vals[1], vals[2], vals[3]);
   }
 
-  private static <Doc> void readShape(Scanner s, AnimationBuilder<Doc> builder) {
+  private static <Doc> void readShape(Scanner s, AnimationBuilder<Doc> builder,
+                                      MotionFilter filter) {
     String name;
     String type;
     if (s.hasNext()) {
@@ -78,20 +127,27 @@ public class AnimationReader {
     } else {
       throw new IllegalStateException("Shape: Expected a type, but no more input available");
     }
-    builder.declareShape(name, type);
+    builder.declareShape(filter.intern(name), type);
+  }
+
+  private static <Doc> void readKeyframe(Scanner s, AnimationBuilder<Doc> builder) {
+    int[] vals = new int[8];
+    String name;
+    if (s.hasNext()) {
+      name = s.next();
+    } else {
+      throw new IllegalStateException(
+              "Keyframe: Expected a shape name, but no more input available");
+    }
+    for (int i = 0; i < 8; i++) {
+      vals[i] = getInt(s, "Keyframe", KEYFRAME_FIELDS[i]);
+    }
+    builder.addKeyframe(name,
+            vals[0], vals[1], vals[2], vals[3], vals[4], vals[5], vals[6], vals[7]);
   }
 
-  private static <Doc> void readMotion(Scanner s, AnimationBuilder<Doc> builder) {
-    String[] fieldNames = new String[]{
-      "initial time",
-      "initial x-coordinate", "initial y-coordinate",
-      "initial width", "initial height",
-      "initial red value", "initial green value", "initial blue value",
-      "final time",
-      "final x-coordinate", "final y-coordinate",
-      "final width", "final height",
-      "final red value", "final green value", "final blue value",
-    };
+  private static <Doc> void readMotion(Scanner s, AnimationBuilder<Doc> builder,
+                                       MotionFilter filter) {
     int[] vals = new int[16];
     String name;
     if (s.hasNext()) {
@@ -100,7 +156,11 @@ public class AnimationReader {
       throw new IllegalStateException("Motion: Expected a shape name, but no more input available");
     }
     for (int i = 0; i < 16; i++) {
-      vals[i] = getInt(s, "Motion", fieldNames[i]);
+      vals[i] = getInt(s, "Motion", MOTION_FIELDS[i]);
+    }
+    name = filter.intern(name);
+    if (!filter.admit(name, vals)) {
+      return;
     }
     builder.addMotion(name,
             vals[0], vals[1], vals[2 ], vals[3 ], vals[4 ], vals[5 ], vals[6 ], vals[7 ],
@@ -120,4 +180,460 @@ public class AnimationReader {
     }
   }
 
+  /**
+   * Reads an animation in the same format as {@link #parseFile}, directly from the bytes of the
+   * given stream. Integers are parsed in place rather than through a regular expression, so no
+   * object is created per word, and the builder sees exactly the same calls in the same order.
+   * Input compressed with gzip is decompressed as it is read, and input in the binary format of
+   * {@link BinaryFormat} is read with {@link #parseBinary}, both recognized by their magic numbers.
+   *
+   * @param in      The source of data for the animation, in UTF-8
+   * @param builder A builder for helping to construct a new animation
+   * @param <Doc>   The main model interface type describing animations
+   * @return the animation built.
+   */
+  public static <Doc> Doc parseStream(InputStream in, AnimationBuilder<Doc> builder) {
+    Objects.requireNonNull(in, "Must have non-null input stream");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    InputStream data;
+    try {
+      data = decompress(in);
+      data.mark(4);
+      int magic = 0;
+      int read = 0;
+      int b = data.read();
+      while ((b >= 0) && (read < 4)) {
+        magic = (magic << 8) | b;
+        read++;
+        b = (read < 4) ? data.read() : -1;
+      }
+      data.reset();
+      if ((read == 4) && (magic == BinaryFormat.MAGIC)) {
+        return parseBinary(data, builder);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot read input: " + e.getMessage());
+    }
+    parseInto(new AnimationLexer(data), builder);
+    return builder.build();
+  }
+
+  /**
+   * Wraps the given stream to decompress it if it starts with the gzip magic number. The stream
+   * returned supports marking, so its first bytes can be looked at before it is read.
+   *
+   * @param in the stream
+   * @return the stream to read the animation from.
+   * @throws IOException if the stream cannot be read.
+   */
+  private static InputStream decompress(InputStream in) throws IOException {
+    InputStream buffered = new BufferedInputStream(in, 1 << 16);
+    buffered.mark(2);
+    int first = buffered.read();
+    int second = buffered.read();
+    buffered.reset();
+    if (isGzip(first, second)) {
+      return new BufferedInputStream(new GZIPInputStream(buffered, 1 << 16), 1 << 16);
+    }
+    return buffered;
+  }
+
+  /**
+   * Determines if the given first two bytes of an input are the gzip magic number.
+   *
+   * @param first  the first byte
+   * @param second the second byte
+   * @return true if the input is compressed with gzip.
+   */
+  private static boolean isGzip(int first, int second) {
+    return (first == (GZIPInputStream.GZIP_MAGIC & 0xFF))
+            && (second == (GZIPInputStream.GZIP_MAGIC >> 8));
+  }
+
+  /**
+   * Determines if the given file is compressed with gzip or in the binary format of
+   * {@link BinaryFormat}, rather than in the textual format, from its first bytes. The position of
+   * the channel is left as is.
+   *
+   * @param channel the channel of the file
+   * @return true if the file is compressed or binary.
+   * @throws IOException if the file cannot be read.
+   */
+  static boolean isEncoded(FileChannel channel) throws IOException {
+    ByteBuffer magic = ByteBuffer.allocate(4);
+    int read = channel.read(magic, 0);
+    return ((read == 4) && (magic.getInt(0) == BinaryFormat.MAGIC))
+            || ((read >= 2) && isGzip(magic.get(0) & 0xFF, magic.get(1) & 0xFF));
+  }
+
+  /**
+   * Reads an animation in the same format as {@link #parseFile}, from a file memory-mapped in
+   * chunks. The file is split at the starts of lines beginning with a keyword, the chunks are
+   * parsed in parallel, and the calls each chunk would make are then made on the builder in file
+   * order, so the builder sees exactly the same calls as with {@link #parseStream}. If a chunk
+   * cannot be parsed on its own, the rest of the file from that chunk on is parsed in order,
+   * which reports malformed input with the same message as the other entry points. A file in the
+   * binary format of {@link BinaryFormat} is recognized by its magic number and read with
+   * {@link #parseBinary} instead.
+   *
+   * @param file    The file to read the animation from, in UTF-8
+   * @param builder A builder for helping to construct a new animation
+   * @param <Doc>   The main model interface type describing animations
+   * @return the animation built.
+   * @throws IOException if the file cannot be opened or mapped.
+   */
+  public static <Doc> Doc parseFile(Path file, AnimationBuilder<Doc> builder)
+          throws IOException {
+    Objects.requireNonNull(file, "Must have non-null file");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (isEncoded(channel)) {
+        return parseStream(Channels.newInputStream(channel.position(0)), builder);
+      }
+      long[] starts = splitIntoChunks(channel);
+      ForkJoinPool pool = ForkJoinPool.commonPool();
+      // chunks parsed ahead of the builder are bounded, so the recorded calls are too
+      int ahead = pool.getParallelism() * 2;
+      Deque<ForkJoinTask<RecordedChunk>> pending = new ArrayDeque<>();
+      int submitted = 0;
+      for (int i = 0; i < starts.length - 1; i++) {
+        while (submitted < starts.length - 1 && submitted < i + ahead) {
+          long start = starts[submitted];
+          long end = starts[submitted + 1];
+          pending.add(pool.submit(() -> parseChunk(channel, start, end)));
+          submitted++;
+        }
+        RecordedChunk chunk = pending.remove().join();
+        if (chunk.hasFailed()) {
+          for (ForkJoinTask<RecordedChunk> task : pending) {
+            task.cancel(false);
+          }
+          parseInto(new AnimationLexer(Channels.newInputStream(channel.position(starts[i]))),
+                  builder);
+          break;
+        }
+        chunk.replay(builder);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Reads an animation in the binary format described by {@link BinaryFormat}. The builder sees
+   * the calls it would see reading the compact textual description of the same animation: every
+   * shape is declared, followed by every key moment of it as a keyframe, in order of their ticks.
+   *
+   * @param in      The source of data for the animation
+   * @param builder A builder for helping to construct a new animation
+   * @param <Doc>   The main model interface type describing animations
+   * @return the animation built.
+   * @throws IllegalStateException if the input is not a binary animation of a known version.
+   */
+  public static <Doc> Doc parseBinary(InputStream in, AnimationBuilder<Doc> builder) {
+    Objects.requireNonNull(in, "Must have non-null input stream");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+    try {
+      if (data.readInt() != BinaryFormat.MAGIC) {
+        throw new IllegalStateException("Binary: not a binary animation");
+      }
+      int version = data.readInt();
+      if (version != BinaryFormat.VERSION) {
+        throw new IllegalStateException("Binary: unsupported version " + version);
+      }
+      builder.setBounds(data.readInt(), data.readInt(), data.readInt(), data.readInt());
+      int count = data.readInt();
+      if (count < 0) {
+        throw new IllegalStateException("Binary: bad number of strings " + count);
+      }
+      // the table grows as strings are read, so a corrupt count runs out of input, not memory
+      String[] strings = new String[Math.min(count, 1024)];
+      for (int i = 0; i < count; i++) {
+        if (i == strings.length) {
+          strings = Arrays.copyOf(strings, (int) Math.min(count, 2L * strings.length));
+        }
+        strings[i] = data.readUTF();
+      }
+      int shapes = data.readInt();
+      if (shapes < 0) {
+        throw new IllegalStateException("Binary: bad number of shapes " + shapes);
+      }
+      byte[] block = new byte[1 << 16];
+      int[] c = new int[0];
+      for (int s = 0; s < shapes; s++) {
+        String name = readString(data, strings);
+        builder.declareShape(name, readString(data, strings));
+        int n = data.readInt();
+        if (n < 0 || n > Integer.MAX_VALUE / (BinaryFormat.COMPONENTS * 4)) {
+          throw new IllegalStateException("Binary: bad number of key moments " + n);
+        }
+        c = readInts(data, n * BinaryFormat.COMPONENTS, c, block);
+        // ticks, x, y, width, height and color of key moment k are at k, k + n, ... k + 5n
+        for (int k = 0; k < n; k++) {
+          int rgb = c[5 * n + k];
+          builder.addKeyframe(name, c[k], c[n + k], c[2 * n + k], c[3 * n + k], c[4 * n + k],
+                  (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+        }
+      }
+    } catch (EOFException e) {
+      throw new IllegalStateException("Binary: unexpected end of input");
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot read input: " + e.getMessage());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Reads the given number of ints into the given array, one block at a time. The array grows as
+   * the ints are read rather than all at once, so a corrupt count runs out of input instead of
+   * memory.
+   *
+   * @param data   the input
+   * @param length the number of ints to read
+   * @param ints   the array to read into, which is reused if it is big enough
+   * @param block  the buffer to read the bytes of a block into
+   * @return the array holding the ints read, first.
+   * @throws IOException if the input cannot be read.
+   */
+  private static int[] readInts(DataInputStream data, int length, int[] ints, byte[] block)
+          throws IOException {
+    int read = 0;
+    while (read < length) {
+      int count = Math.min(length - read, block.length / 4);
+      data.readFully(block, 0, count * 4);
+      if (ints.length < read + count) {
+        ints = Arrays.copyOf(ints, (int) Math.min(length, Math.max(read + count,
+                2L * ints.length)));
+      }
+      ByteBuffer.wrap(block, 0, count * 4).asIntBuffer().get(ints, read, count);
+      read += count;
+    }
+    return ints;
+  }
+
+  /**
+   * Reads the index of a string and looks it up in the table of strings.
+   *
+   * @param data    the input
+   * @param strings the table of strings
+   * @return the string.
+   * @throws IOException if the input cannot be read.
+   */
+  private static String readString(DataInputStream data, String[] strings) throws IOException {
+    int i = data.readInt();
+    if (i < 0 || i >= strings.length) {
+      throw new IllegalStateException("Binary: no string at index " + i);
+    }
+    return strings[i];
+  }
+
+  /**
+   * Splits the given file into chunks starting at the starts of lines beginning with a keyword.
+   *
+   * @param channel the file
+   * @return the offsets the chunks start at, followed by the size of the file.
+   * @throws IOException if the file cannot be read.
+   */
+  private static long[] splitIntoChunks(FileChannel channel) throws IOException {
+    long size = channel.size();
+    int parallelism = ForkJoinPool.commonPool().getParallelism();
+    long target = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, size / (parallelism * 4L)));
+    long[] starts = new long[(int) (size / target) + 2];
+    int count = 1;
+    long next = target;
+    while (next < size) {
+      long start = findLineStart(channel, next, size);
+      if (start >= size) {
+        break;
+      }
+      starts[count++] = start;
+      next = start + target;
+    }
+    starts[count++] = size;
+    long[] bounds = new long[count];
+    System.arraycopy(starts, 0, bounds, 0, count);
+    return bounds;
+  }
+
+  /**
+   * Finds the start of the first line beginning with a keyword at or after the given offset.
+   *
+   * @param channel the file
+   * @param from    the offset to search from
+   * @param size    the size of the file
+   * @return the offset the line starts at, or the size of the file if there is none.
+   * @throws IOException if the file cannot be read.
+   */
+  private static long findLineStart(FileChannel channel, long from, long size)
+          throws IOException {
+    ByteBuffer window = ByteBuffer.allocate(1 << 16);
+    long offset = from - 1;
+    while (offset < size) {
+      window.clear();
+      int read = channel.read(window, offset);
+      if (read <= 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        if (window.get(i) == '\n' && (startsWithKeyword(window, i + 1, read, "motion")
+                || startsWithKeyword(window, i + 1, read, "shape")
+                || startsWithKeyword(window, i + 1, read, "keyframe")
+                || startsWithKeyword(window, i + 1, read, "canvas"))) {
+          return offset + i + 1;
+        }
+      }
+      // keep the last bytes, in case a keyword is split between two windows
+      offset += Math.max(1, read - 8);
+    }
+    return size;
+  }
+
+  /**
+   * Determines if the given keyword, followed by whitespace, is found at the given position.
+   *
+   * @param window  the bytes read
+   * @param index   the position
+   * @param limit   the number of bytes read
+   * @param keyword the keyword
+   * @return true if the keyword is found there.
+   */
+  private static boolean startsWithKeyword(ByteBuffer window, int index, int limit,
+                                           String keyword) {
+    if (index + keyword.length() >= limit) {
+      return false;
+    }
+    for (int i = 0; i < keyword.length(); i++) {
+      if (window.get(index + i) != keyword.charAt(i)) {
+        return false;
+      }
+    }
+    byte after = window.get(index + keyword.length());
+    return after == ' ' || after == '\t' || after == '\r' || after == '\n';
+  }
+
+  /**
+   * Parses one chunk of a file on its own, recording the calls it would make on a builder.
+   *
+   * @param channel the file
+   * @param start   the offset the chunk starts at
+   * @param end     the offset the chunk ends at
+   * @return the recorded calls, marked as failed if the chunk cannot be parsed on its own.
+   */
+  private static RecordedChunk parseChunk(FileChannel channel, long start, long end) {
+    RecordedChunk chunk = new RecordedChunk();
+    try {
+      MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+      parseInto(new AnimationLexer(region), chunk);
+    } catch (IOException | IllegalStateException e) {
+      chunk.fail();
+    }
+    return chunk;
+  }
+
+  /**
+   * Parses every line read by the given lexer into the given builder, without building it.
+   *
+   * @param lexer   the lexer to read from
+   * @param builder the builder to add to
+   * @param <Doc>   The main model interface type describing animations
+   */
+  static <Doc> void parseInto(AnimationLexer lexer, AnimationBuilder<Doc> builder) {
+    parseInto(lexer, builder, new MotionFilter());
+  }
+
+  /**
+   * Parses every line read by the given lexer into the given builder, without building it, passing
+   * motions through the given filter. The filter is left as the last line read leaves it, so it
+   * can go on filtering lines read later.
+   *
+   * @param lexer   the lexer to read from
+   * @param builder the builder to add to
+   * @param filter  the filter of the motions
+   * @param <Doc>   The main model interface type describing animations
+   */
+  static <Doc> void parseInto(AnimationLexer lexer, AnimationBuilder<Doc> builder,
+                              MotionFilter filter) {
+    // the values of a line, reused for every line
+    int[] vals = new int[16];
+    while (lexer.next()) {
+      if (lexer.wordIs("motion")) {
+        readMotion(lexer, builder, vals, filter);
+      } else if (lexer.wordIs("keyframe")) {
+        readKeyframe(lexer, builder, vals);
+      } else if (lexer.wordIs("shape")) {
+        readShape(lexer, builder);
+      } else if (lexer.wordIs("canvas")) {
+        readCanvas(lexer, builder, vals);
+      } else {
+        throw new IllegalStateException("Unexpected keyword: " + lexer.word()
+                + lexer.restOfLine());
+      }
+    }
+  }
+
+  private static <Doc> void readCanvas(AnimationLexer lexer, AnimationBuilder<Doc> builder,
+                                       int[] vals) {
+    for (int i = 0; i < 4; i++) {
+      vals[i] = getInt(lexer, "Canvas", CANVAS_FIELDS[i]);
+    }
+    builder.setBounds(vals[0], vals[1], vals[2], vals[3]);
+  }
+
+  private static <Doc> void readShape(AnimationLexer lexer, AnimationBuilder<Doc> builder) {
+    if (!lexer.next()) {
+      throw new IllegalStateException("Shape: Expected a name, but no more input available");
+    }
+    String name = lexer.name();
+    if (!lexer.next()) {
+      throw new IllegalStateException("Shape: Expected a type, but no more input available");
+    }
+    builder.declareShape(name, lexer.name());
+  }
+
+  private static <Doc> void readKeyframe(AnimationLexer lexer, AnimationBuilder<Doc> builder,
+                                         int[] vals) {
+    if (!lexer.next()) {
+      throw new IllegalStateException(
+              "Keyframe: Expected a shape name, but no more input available");
+    }
+    String name = lexer.name();
+    for (int i = 0; i < 8; i++) {
+      vals[i] = getInt(lexer, "Keyframe", KEYFRAME_FIELDS[i]);
+    }
+    builder.addKeyframe(name,
+            vals[0], vals[1], vals[2], vals[3], vals[4], vals[5], vals[6], vals[7]);
+  }
+
+  private static <Doc> void readMotion(AnimationLexer lexer, AnimationBuilder<Doc> builder,
+                                       int[] vals, MotionFilter filter) {
+    if (!lexer.next()) {
+      throw new IllegalStateException("Motion: Expected a shape name, but no more input available");
+    }
+    String name = lexer.name();
+    for (int i = 0; i < 16; i++) {
+      vals[i] = getInt(lexer, "Motion", MOTION_FIELDS[i]);
+    }
+    if (!filter.admit(name, vals)) {
+      return;
+    }
+    builder.addMotion(name,
+            vals[0], vals[1], vals[2 ], vals[3 ], vals[4 ], vals[5 ], vals[6 ], vals[7 ],
+            vals[8], vals[9], vals[10], vals[11], vals[12], vals[13], vals[14], vals[15]);
+  }
+
+  private static int getInt(AnimationLexer lexer, String label, String fieldName) {
+    if (!lexer.next()) {
+      throw new IllegalStateException(
+              String.format("%s: expected integer for %s, but no more input available",
+                            label, fieldName));
+    }
+    try {
+      return lexer.wordAsInt();
+    } catch (NumberFormatException e) {
+      throw new IllegalStateException(
+              String.format("%s: expected integer for %s, got: %s", label, fieldName,
+                            lexer.word()));
+    }
+  }
+
 }
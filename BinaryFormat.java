@@ -0,0 +1,35 @@
+package cs3500.animator.util;
+
+/**
+ * Describes the binary format of animations, read by {@link AnimationReader#parseBinary} and
+ * written by the binary view. All integers are big-endian. A file holds, in this order:
+ * <ul>
+ * <li>the magic number and the version of the format;</li>
+ * <li>the canvas left, top, width and height;</li>
+ * <li>a table of strings, as a count followed by every string in modified UTF-8, holding every
+ * shape name and shape type once;</li>
+ * <li>the shapes, as a count followed by, for every shape, the index of its name, the index of
+ * its type and its number of key moments n, then n ticks, n x-coordinates, n y-coordinates,
+ * n widths, n heights and n colors packed as 0xRRGGBB.</li>
+ * </ul>
+ */
+public final class BinaryFormat {
+
+  /**
+   * The first four bytes of every binary animation, which cannot start a textual one.
+   */
+  public static final int MAGIC = 0x89414E4D;
+
+  /**
+   * The version of the format written.
+   */
+  public static final int VERSION = 1;
+
+  /**
+   * The number of arrays of key moment components written per shape.
+   */
+  public static final int COMPONENTS = 6;
+
+  private BinaryFormat() {
+  }
+}
@@ -0,0 +1,136 @@
+package cs3500.animator.view;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import cs3500.animator.model.ReadOnlyAnimationModel;
+import cs3500.animator.model.ReadOnlyShape;
+import cs3500.animator.util.BinaryFormat;
+
+/**
+ * This is an implementation of the AnimationView interface that writes the animation in the
+ * binary format described by {@link BinaryFormat}, which can be read back much faster than the
+ * textual description.
+ */
+public class BinaryView implements AnimationView {
+
+  private final ReadOnlyAnimationModel model;
+  private final String fileOutput;
+
+  /**
+   * Constructs a BinaryView.
+   *
+   * @param model      the read only model
+   * @param fileOutput name of the file to output to
+   */
+  public BinaryView(ReadOnlyAnimationModel model, String fileOutput) {
+    this.model = model;
+    this.fileOutput = fileOutput;
+  }
+
+  @Override
+  public void makeVisible() {
+    try (OutputStream out = ViewOutput.open(fileOutput)) {
+      write(out);
+    } catch (IOException ioe) {
+      ViewOutput.reportFailure(fileOutput);
+    }
+  }
+
+  /**
+   * Writes the animation in the binary format to the given stream.
+   *
+   * @param out the stream to write to
+   * @throws IOException if the stream cannot be written.
+   */
+  public void write(OutputStream out) throws IOException {
+    ReadOnlyShape[] shapes = model.getShapesInModel().toArray(new ReadOnlyShape[0]);
+    // every name and type is written once, and shapes refer to them by index
+    Map<String, Integer> index = new HashMap<>();
+    List<String> strings = new ArrayList<>();
+    int[] names = new int[shapes.length];
+    int[] types = new int[shapes.length];
+    for (int i = 0; i < shapes.length; i++) {
+      names[i] = intern(shapes[i].getName(), index, strings);
+      types[i] = intern(getShapeType(shapes[i]), index, strings);
+    }
+
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+    data.writeInt(BinaryFormat.MAGIC);
+    data.writeInt(BinaryFormat.VERSION);
+    for (int v : model.getCanvasDimensions()) {
+      data.writeInt(v);
+    }
+    data.writeInt(strings.size());
+    for (String s : strings) {
+      data.writeUTF(s);
+    }
+    data.writeInt(shapes.length);
+    ByteBuffer bytes = ByteBuffer.allocate(0);
+    for (int i = 0; i < shapes.length; i++) {
+      ReadOnlyShape c = shapes[i];
+      int n = c.getKeyMomentCount();
+      data.writeInt(names[i]);
+      data.writeInt(types[i]);
+      data.writeInt(n);
+      if (bytes.capacity() < n * BinaryFormat.COMPONENTS * 4) {
+        bytes = ByteBuffer.allocate(n * BinaryFormat.COMPONENTS * 4);
+      }
+      IntBuffer ints = bytes.asIntBuffer();
+      for (int k = 0; k < n; k++) {
+        ints.put(k, c.getTick(k));
+        ints.put(n + k, c.getX(k));
+        ints.put(2 * n + k, c.getY(k));
+        ints.put(3 * n + k, c.getWidth(k));
+        ints.put(4 * n + k, c.getHeight(k));
+        ints.put(5 * n + k, (c.getR(k) << 16) | (c.getG(k) << 8) | c.getB(k));
+      }
+      data.write(bytes.array(), 0, n * BinaryFormat.COMPONENTS * 4);
+    }
+    data.flush();
+  }
+
+  /**
+   * Gets the index of the given string in the table of strings, adding it if needed.
+   *
+   * @param s       the string
+   * @param index   the index of every string in the table
+   * @param strings the table of strings
+   * @return the index of the string.
+   */
+  private static int intern(String s, Map<String, Integer> index, List<String> strings) {
+    Integer i = index.get(s);
+    if (i == null) {
+      i = strings.size();
+      index.put(s, i);
+      strings.add(s);
+    }
+    return i;
+  }
+
+  /**
+   * Determines the name of the type of the given shape, as declared in the textual description.
+   *
+   * @param s the shape
+   * @return the name of the type of the shape.
+   * @throws IllegalArgumentException if there is no such shape.
+   */
+  private static String getShapeType(ReadOnlyShape s) {
+    switch (s.getType()) {
+      case RECTANGLE:
+        return "rectangle";
+      case ELLIPSE:
+        return "ellipse";
+      default:
+        throw new IllegalArgumentException("No such shape");
+    }
+  }
+}
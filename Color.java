@@ -4,9 +4,15 @@ import java.util.Objects;
 
 /**
  * Represents a color, in terms of the red, green and blue colors that are added to produce this
- * specific color.
+ * specific color. Colors are immutable, so they can be shared; {@link #of} returns a shared
+ * instance for colors that were already used.
  */
-public class Color {
+public final class Color {
+  // shared colors, found by their packed RGB value
+  private static final Color[] CACHE = new Color[4096];
+  // number of slots to look at before giving up on sharing a color
+  private static final int PROBES = 8;
+
   private final int r;
   private final int g;
   private final int b;
@@ -20,14 +26,40 @@ public class Color {
    * @throws IllegalArgumentException if either the r, g or b values exceed the range 0 - 255.
    */
   public Color(int r, int g, int b) {
-    if (r > 255 || r < 0 || g > 255 || g < 0 || b > 255 || b < 0) {
-      throw new IllegalArgumentException("RGB must be in between 0 and 255");
-    }
+    Shapes.ensureValidColor(r, g, b);
     this.r = r;
     this.g = g;
     this.b = b;
   }
 
+  /**
+   * Returns a color of the given components, sharing the same instance between calls with the same
+   * components for as long as there is room to remember it.
+   *
+   * @param r the r value in the RGB color model
+   * @param g the g value in the RGB color model
+   * @param b the b value in the RGB color model
+   * @return the color.
+   * @throws IllegalArgumentException if either the r, g or b values exceed the range 0 - 255.
+   */
+  public static Color of(int r, int g, int b) {
+    Shapes.ensureValidColor(r, g, b);
+    int rgb = (r << 16) | (g << 8) | b;
+    int slot = (rgb * 0x9E3779B1) >>> 20;
+    for (int i = 0; i < PROBES; i++) {
+      int index = (slot + i) & (CACHE.length - 1);
+      Color c = CACHE[index];
+      if (c == null) {
+        c = new Color(r, g, b);
+        CACHE[index] = c;
+        return c;
+      } else if (c.getRGB() == rgb) {
+        return c;
+      }
+    }
+    return new Color(r, g, b);
+  }
+
   /**
    * Copy constructor of color.
    *
@@ -83,4 +115,13 @@ public class Color {
     return b;
   }
 
+  /**
+   * Gets this color with its R, G and B components packed into a single int.
+   *
+   * @return this color packed as 0xRRGGBB.
+   */
+  public int getRGB() {
+    return (r << 16) | (g << 8) | b;
+  }
+
 }
@@ -0,0 +1,396 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents an immutable animation compiled for playback and export. Every shape is compiled
+ * into a {@link CompiledShape}, and the lifetimes of the shapes are indexed once, so the
+ * animation can be sampled and printed repeatedly without re-deriving anything from the key
+ * moments of the model it was compiled from. Later changes to that model are not reflected.
+ *
+ * <p>Being immutable, a compiled animation can be read from any thread. Changed versions of it
+ * share every shape that did not change with it.</p>
+ */
+public final class CompiledAnimation implements ReadOnlyAnimationModel {
+
+  private final long version;
+  private final int[] canvas;
+  private final CompiledShape[] shapes;
+  // index of every shape by name, shared between versions with the same shapes in the same order
+  private final Map<String, Integer> names;
+  // derived from the previous version if it had them, and built on first use otherwise, since a
+  // version may never be sampled
+  private volatile TemporalIndex timeline;
+  private volatile Extent extent;
+
+  /**
+   * Constructs a CompiledAnimation from already compiled shapes.
+   *
+   * @param version  the version of the animation
+   * @param canvas   the canvas left, top, width and height, in this order
+   * @param shapes   the compiled shapes, in the order they were added to the model
+   * @param names    the index of every shape by name
+   * @param timeline the index of the lifetimes of the shapes, or null to build it on first use
+   * @param extent   the extent of the animation, which is not changed afterwards, or null to
+   *                 compute it on first use
+   */
+  private CompiledAnimation(long version, int[] canvas, CompiledShape[] shapes,
+                            Map<String, Integer> names, TemporalIndex timeline, Extent extent) {
+    this.version = version;
+    this.canvas = canvas;
+    this.shapes = shapes;
+    this.names = names;
+    this.timeline = timeline;
+    this.extent = extent;
+  }
+
+  /**
+   * Constructs a CompiledAnimation from already compiled shapes, indexing them by name.
+   *
+   * @param version the version of the animation
+   * @param canvas  the canvas left, top, width and height, in this order
+   * @param shapes  the compiled shapes, in the order they were added to the model
+   */
+  private CompiledAnimation(long version, int[] canvas, CompiledShape[] shapes) {
+    this(version, canvas, shapes, new HashMap<String, Integer>(), null, null);
+    for (int i = 0; i < shapes.length; i++) {
+      this.names.put(shapes[i].getName(), i);
+    }
+  }
+
+  /**
+   * Compiles the current state of the given model. A model that is already compiled is returned as
+   * is.
+   *
+   * @param model the model to compile
+   * @return the compiled animation.
+   */
+  public static CompiledAnimation compile(ReadOnlyAnimationModel model) {
+    if (model instanceof CompiledAnimation) {
+      return (CompiledAnimation) model;
+    }
+    List<ReadOnlyShape> los = model.getShapesInModel();
+    CompiledShape[] compiled = new CompiledShape[los.size()];
+    for (int i = 0; i < compiled.length; i++) {
+      compiled[i] = CompiledShape.of(los.get(i));
+    }
+    return new CompiledAnimation(0, model.getCanvasDimensions(), compiled);
+  }
+
+  /**
+   * Gets the version of this animation, which increases with every change made to produce it.
+   *
+   * @return the version of this animation.
+   */
+  @Override
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Starts a set of changes to this animation, to be published together as its next version.
+   *
+   * @return an editor starting from this animation.
+   */
+  Editor edit() {
+    return new Editor(this);
+  }
+
+  /**
+   * Returns the index of the lifetimes of the shapes, building it if needed.
+   *
+   * @return the index of the lifetimes of the shapes.
+   */
+  private TemporalIndex getTimeline() {
+    TemporalIndex index = this.timeline;
+    if (index == null) {
+      index = TemporalIndex.of(this.shapes);
+      this.timeline = index;
+    }
+    return index;
+  }
+
+  /**
+   * Returns the extent of the animation, computing it if needed.
+   *
+   * @return the extent of the animation.
+   */
+  private Extent getExtent() {
+    Extent e = this.extent;
+    if (e == null) {
+      e = new Extent();
+      for (CompiledShape s : this.shapes) {
+        e.include(s);
+      }
+      this.extent = e;
+    }
+    return e;
+  }
+
+  @Override
+  public List<ReadOnlyShape> getShapesInModel() {
+    return new ArrayList<ReadOnlyShape>(Arrays.asList(this.shapes));
+  }
+
+  @Override
+  public int[] getCanvasDimensions() {
+    return this.canvas.clone();
+  }
+
+  @Override
+  public int getFirstTick() {
+    return getExtent().getFirstTick();
+  }
+
+  @Override
+  public int getLastTick() {
+    return getExtent().getLastTick();
+  }
+
+  @Override
+  public int[] getBounds() {
+    return getExtent().getBounds();
+  }
+
+  @Override
+  public List<ReadOnlyShape> getShapesAtTick(int tick) {
+    IdList found = new IdList();
+    getTimeline().query(tick, found);
+    List<ReadOnlyShape> los = new ArrayList<>(found.size());
+    for (int i = 0; i < found.size(); i++) {
+      los.add(this.shapes[found.get(i)].getKeyMomentsAtTick(tick));
+    }
+    return los;
+  }
+
+  @Override
+  public void sampleFrame(int tick, FrameBuffer out) {
+    out.clear();
+    getTimeline().query(tick, out.found);
+    for (int i = 0; i < out.found.size(); i++) {
+      int id = out.found.get(i);
+      out.setShapeId(id);
+      this.shapes[id].sampleInto(tick, out);
+    }
+  }
+
+  @Override
+  public ReadOnlyAnimationModel snapshot() {
+    return this;
+  }
+
+  /**
+   * Collects changes to a compiled animation and builds its next version from them. A shape is
+   * unpacked the first time it is changed and compiled once when the next version is built,
+   * however many changes were made to it, and every shape that was not changed is shared with the
+   * animation the changes started from. An editor builds a single version.
+   *
+   * <p>The next version still gets an array of its own holding every shape, so each version
+   * costs a copy of N references, but nothing more is derived from the shapes that did not
+   * change: the index of the lifetimes is derived from the one of the previous version with only
+   * the lifetimes that changed, and so is the extent, unless a changed or removed shape was on
+   * its boundary. Removing a shape moves the later ones down one position, so the index of the
+   * lifetimes of that version is built again on first use.</p>
+   */
+  static final class Editor {
+    private final CompiledAnimation base;
+    private int[] canvas;
+    private final List<CompiledShape> shapes;
+    private Map<String, Integer> names;
+    // true while the index of the shapes by name is still the one of the base animation
+    private boolean sharedNames;
+    // shapes changed since the base animation, by name
+    private final Map<String, PackedShape> changed;
+    // number of shapes added since the base animation, which are the last ones
+    private int added;
+    // shapes removed since the base animation, as they were before any change
+    private final List<CompiledShape> removed;
+    private boolean modified;
+
+    /**
+     * Constructs an Editor starting from the given animation.
+     *
+     * @param base the animation to start from
+     */
+    private Editor(CompiledAnimation base) {
+      this.base = base;
+      this.canvas = base.canvas;
+      this.shapes = new ArrayList<>(Arrays.asList(base.shapes));
+      this.names = base.names;
+      this.sharedNames = true;
+      this.changed = new HashMap<>();
+      this.removed = new ArrayList<>();
+    }
+
+    /**
+     * Finds the position of the shape of the given name.
+     *
+     * @param name the name of the shape
+     * @return the position of the shape, in the order the shapes were added.
+     * @throws IllegalArgumentException if the shape is not found.
+     */
+    private int indexOf(String name) {
+      Integer index = this.names.get(name);
+      if (index == null) {
+        throw new IllegalArgumentException("No such shape.");
+      }
+      return index;
+    }
+
+    /**
+     * Gets the shape of the given name to change it.
+     *
+     * @param name the name of the shape
+     * @return the shape, which is changed in place.
+     * @throws IllegalArgumentException if the shape is not found.
+     */
+    PackedShape getShape(String name) {
+      PackedShape shape = this.changed.get(name);
+      if (shape == null) {
+        shape = this.shapes.get(indexOf(name)).toPackedShape();
+        this.changed.put(name, shape);
+      }
+      this.modified = true;
+      return shape;
+    }
+
+    /**
+     * Adds the given shape last.
+     *
+     * @param shape the new shape
+     * @throws IllegalArgumentException if a shape of the same name is found.
+     */
+    void addShape(CompiledShape shape) {
+      if (this.names.containsKey(shape.getName())) {
+        throw new IllegalArgumentException("No duplicates.");
+      }
+      if (this.sharedNames) {
+        this.names = new HashMap<>(this.names);
+        this.sharedNames = false;
+      }
+      this.names.put(shape.getName(), this.shapes.size());
+      this.shapes.add(shape);
+      this.added++;
+      this.modified = true;
+    }
+
+    /**
+     * Removes the shape of the given name.
+     *
+     * @param name the name of the shape
+     * @throws IllegalArgumentException if the shape is not found.
+     */
+    void removeShape(String name) {
+      int index = indexOf(name);
+      if (index >= this.shapes.size() - this.added) {
+        this.added--;
+      }
+      this.removed.add(this.shapes.remove(index));
+      this.changed.remove(name);
+      this.names = new HashMap<>();
+      this.sharedNames = false;
+      for (int i = 0; i < this.shapes.size(); i++) {
+        this.names.put(this.shapes.get(i).getName(), i);
+      }
+      this.modified = true;
+    }
+
+    /**
+     * Sets the canvas.
+     *
+     * @param canvas the canvas left, top, width and height, in this order
+     */
+    void setCanvas(int[] canvas) {
+      this.canvas = canvas.clone();
+      this.modified = true;
+    }
+
+    /**
+     * Builds the next version of the animation, or returns the animation the changes started from
+     * if nothing was changed.
+     *
+     * @return the animation with the changes.
+     */
+    CompiledAnimation build() {
+      if (!this.modified) {
+        return this.base;
+      }
+      CompiledShape[] compiled = this.shapes.toArray(new CompiledShape[0]);
+      int[] changedIds = new int[this.changed.size()];
+      int count = 0;
+      for (Map.Entry<String, PackedShape> e : this.changed.entrySet()) {
+        int id = this.names.get(e.getKey());
+        compiled[id] = e.getValue().compile();
+        changedIds[count++] = id;
+      }
+      return new CompiledAnimation(this.base.version + 1, this.canvas, compiled, this.names,
+              deriveTimeline(compiled, changedIds), deriveExtent(compiled, changedIds));
+    }
+
+    /**
+     * Derives the index of the lifetimes of the next version from the one of the base animation,
+     * with the lifetimes of the shapes that were added or changed.
+     *
+     * @param compiled   the shapes of the next version
+     * @param changedIds the positions of the shapes that were changed
+     * @return the index, or null if the base animation has none or a shape was removed.
+     */
+    private TemporalIndex deriveTimeline(CompiledShape[] compiled, int[] changedIds) {
+      TemporalIndex index = this.base.timeline;
+      if ((index == null) || !this.removed.isEmpty()) {
+        return null;
+      }
+      int first = compiled.length - this.added;
+      for (int id = first; id < compiled.length; id++) {
+        index = index.withLifetime(id, compiled[id].getFirstTick(), compiled[id].getLastTick());
+      }
+      for (int id : changedIds) {
+        // shapes added since the base animation already have their last lifetime
+        if ((id < first) && ((this.base.shapes[id].getFirstTick() != compiled[id].getFirstTick())
+                || (this.base.shapes[id].getLastTick() != compiled[id].getLastTick()))) {
+          index = index.withLifetime(id, compiled[id].getFirstTick(),
+                  compiled[id].getLastTick());
+        }
+      }
+      return index;
+    }
+
+    /**
+     * Derives the extent of the next version from the one of the base animation, including the
+     * shapes that were added or changed.
+     *
+     * @param compiled   the shapes of the next version
+     * @param changedIds the positions of the shapes that were changed
+     * @return the extent, or null if the base animation has none or a shape that was changed or
+     *         removed was on its boundary, so the extent may shrink.
+     */
+    private Extent deriveExtent(CompiledShape[] compiled, int[] changedIds) {
+      if (this.base.extent == null) {
+        return null;
+      }
+      Extent e = new Extent(this.base.extent);
+      int first = compiled.length - this.added;
+      for (CompiledShape old : this.removed) {
+        if (e.touches(old)) {
+          return null;
+        }
+      }
+      for (int id : changedIds) {
+        if ((id < first) && e.touches(this.shapes.get(id))) {
+          return null;
+        }
+      }
+      for (int id : changedIds) {
+        e.include(compiled[id]);
+      }
+      for (int id = first; id < compiled.length; id++) {
+        e.include(compiled[id]);
+      }
+      return e;
+    }
+  }
+}
@@ -0,0 +1,263 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents an immutable shape whose key moments have been compiled for playback. The key
+ * moments are stored in contiguous arrays of primitives, and every segment in between two key
+ * moments holds the change per tick of each component, so the state of the shape at any tick is
+ * found with a binary search and one multiply-add per component. A compiled shape cannot be
+ * changed; compile the shape again instead.
+ */
+public final class CompiledShape implements ReadOnlyShape {
+
+  // number of components per key moment: x, y, width, height, r, g, b
+  static final int COMPONENTS = 7;
+
+  private final String name;
+  private final ShapeType type;
+  private final int[] ticks;
+  // the components of every key moment, COMPONENTS ints per key moment
+  private final int[] values;
+  // the change per tick of every component in every segment, COMPONENTS doubles per segment
+  private final double[] slopes;
+
+  /**
+   * Constructs a CompiledShape from the components of its key moments.
+   *
+   * @param name   name of the shape
+   * @param type   type of the shape
+   * @param ticks  the ticks of its key moments, in chronological order
+   * @param values the x, y, width, height, r, g and b of every key moment, in this order
+   */
+  CompiledShape(String name, ShapeType type, int[] ticks, int[] values) {
+    this.name = name;
+    this.type = type;
+    this.ticks = ticks;
+    this.values = values;
+    this.slopes = new double[Math.max(ticks.length - 1, 0) * COMPONENTS];
+    for (int i = 0; i < ticks.length - 1; i++) {
+      int duration = ticks[i + 1] - ticks[i];
+      for (int c = 0; c < COMPONENTS; c++) {
+        int v = i * COMPONENTS + c;
+        if (duration > 0) {
+          this.slopes[v] = (double) (values[v + COMPONENTS] - values[v]) / duration;
+        }
+      }
+    }
+  }
+
+  /**
+   * Compiles the given shape. A shape that is already compiled is returned as is.
+   *
+   * @param s the shape to compile
+   * @return the compiled shape.
+   */
+  public static CompiledShape of(ReadOnlyShape s) {
+    if (s instanceof CompiledShape) {
+      return (CompiledShape) s;
+    } else if (s instanceof PackedShape) {
+      return ((PackedShape) s).compile();
+    }
+    int count = s.getKeyMomentCount();
+    int[] ticks = new int[count];
+    int[] values = new int[count * COMPONENTS];
+    for (int i = 0; i < count; i++) {
+      int v = i * COMPONENTS;
+      ticks[i] = s.getTick(i);
+      values[v] = s.getX(i);
+      values[v + 1] = s.getY(i);
+      values[v + 2] = s.getWidth(i);
+      values[v + 3] = s.getHeight(i);
+      values[v + 4] = s.getR(i);
+      values[v + 5] = s.getG(i);
+      values[v + 6] = s.getB(i);
+    }
+    return new CompiledShape(s.getName(), s.getType(), ticks, values);
+  }
+
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  public ShapeType getType() {
+    return this.type;
+  }
+
+  @Override
+  public List<KeyMoment> getKeyMoments() {
+    List<KeyMoment> keyMoments = new ArrayList<>(this.ticks.length);
+    for (int i = 0; i < this.ticks.length; i++) {
+      keyMoments.add(getKeyMoment(i));
+    }
+    return keyMoments;
+  }
+
+  /**
+   * Creates the key moment at the given index.
+   *
+   * @param i the index of the key moment
+   * @return the key moment.
+   */
+  private KeyMoment getKeyMoment(int i) {
+    return new KeyMoment(getTick(i), Color.of(getR(i), getG(i), getB(i)),
+            new Dimensions(getWidth(i), getHeight(i)), new Position2D(getX(i), getY(i)));
+  }
+
+  @Override
+  public CompiledShape getKeyMomentsAtTick(int tick) {
+    int floor = floorIndex(tick);
+    if (floor < 0) {
+      return null;
+    }
+    int end = (this.ticks[floor] == tick) ? floor + 1 : floor + 2;
+    return new CompiledShape(this.name, this.type, Arrays.copyOfRange(this.ticks, floor, end),
+            Arrays.copyOfRange(this.values, floor * COMPONENTS, end * COMPONENTS));
+  }
+
+  @Override
+  public int getFirstTick() {
+    if (this.ticks.length == 0) {
+      return -1;
+    }
+    return this.ticks[0];
+  }
+
+  @Override
+  public int getLastTick() {
+    if (this.ticks.length == 0) {
+      return -1;
+    }
+    return this.ticks[this.ticks.length - 1];
+  }
+
+  @Override
+  public void sampleInto(int tick, FrameBuffer out) {
+    int floor = floorIndex(tick);
+    if (floor < 0) {
+      return;
+    }
+    int v = floor * COMPONENTS;
+    if (this.ticks[floor] == tick) {
+      out.add(this.type, this.values[v], this.values[v + 1], this.values[v + 2],
+              this.values[v + 3],
+              (this.values[v + 4] << 16) | (this.values[v + 5] << 8) | this.values[v + 6]);
+    } else {
+      int elapsed = tick - this.ticks[floor];
+      int r = (int) (this.values[v + 4] + this.slopes[v + 4] * elapsed);
+      int g = (int) (this.values[v + 5] + this.slopes[v + 5] * elapsed);
+      int b = (int) (this.values[v + 6] + this.slopes[v + 6] * elapsed);
+      out.add(this.type,
+              (int) (this.values[v] + this.slopes[v] * elapsed),
+              (int) (this.values[v + 1] + this.slopes[v + 1] * elapsed),
+              (int) (this.values[v + 2] + this.slopes[v + 2] * elapsed),
+              (int) (this.values[v + 3] + this.slopes[v + 3] * elapsed),
+              (r << 16) | (g << 8) | b);
+    }
+  }
+
+  /**
+   * Finds the index of the last key moment whose tick is lesser than or equals to the given tick,
+   * as long as the shape is found at the given tick.
+   *
+   * @param tick the tick to look for
+   * @return the index of the key moment, or -1 if the shape is not found at the given tick
+   */
+  private int floorIndex(int tick) {
+    if ((this.ticks.length == 0) || (this.ticks[0] > tick)
+            || (this.ticks[this.ticks.length - 1] < tick)) {
+      return -1;
+    }
+    int low = 0;
+    int high = this.ticks.length - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (this.ticks[mid] <= tick) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public int getKeyMomentCount() {
+    return this.ticks.length;
+  }
+
+  @Override
+  public int getTick(int i) {
+    return this.ticks[i];
+  }
+
+  @Override
+  public int getX(int i) {
+    return this.values[i * COMPONENTS];
+  }
+
+  @Override
+  public int getY(int i) {
+    return this.values[i * COMPONENTS + 1];
+  }
+
+  @Override
+  public int getWidth(int i) {
+    return this.values[i * COMPONENTS + 2];
+  }
+
+  @Override
+  public int getHeight(int i) {
+    return this.values[i * COMPONENTS + 3];
+  }
+
+  @Override
+  public int getR(int i) {
+    return this.values[i * COMPONENTS + 4];
+  }
+
+  @Override
+  public int getG(int i) {
+    return this.values[i * COMPONENTS + 5];
+  }
+
+  @Override
+  public int getB(int i) {
+    return this.values[i * COMPONENTS + 6];
+  }
+
+  /**
+   * Creates a changeable copy of this shape.
+   *
+   * @return a packed shape with the same key moments as this shape.
+   */
+  PackedShape toPackedShape() {
+    PackedShape s = new PackedShape(this.name, this.type, this.ticks.length);
+    for (int i = 0; i < this.ticks.length; i++) {
+      s.insert(i, getTick(i), getX(i), getY(i), getWidth(i), getHeight(i),
+              (getR(i) << 16) | (getG(i) << 8) | getB(i));
+    }
+    return s;
+  }
+
+  @Override
+  public boolean equals(Object a) {
+    if (this == a) {
+      return true;
+    }
+    if (!(a instanceof ReadOnlyShape)) {
+      return false;
+    }
+
+    return Shapes.equal(this, (ReadOnlyShape) a);
+  }
+
+  @Override
+  public int hashCode() {
+    return Shapes.hash(this);
+  }
+}
@@ -3,9 +3,9 @@ package cs3500.animator.model;
 import java.util.Objects;
 
 /**
- * Represents Dimensions in terms of width and height of a 2D shape.
+ * Represents immutable Dimensions in terms of width and height of a 2D shape.
  */
-public class Dimensions {
+public final class Dimensions {
 
   private final int width;
   private final int height;
@@ -18,9 +18,7 @@ public class Dimensions {
    * @throws IllegalArgumentException if the width or height is zero or negative.
    */
   public Dimensions(int width, int height) {
-    if (width <= 0 || height <= 0) {
-      throw new IllegalArgumentException("Width and height must be positive.");
-    }
+    Shapes.ensureValidDimensions(width, height);
     this.width = width;
     this.height = height;
   }
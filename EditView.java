@@ -18,6 +18,7 @@ import javax.swing.BoxLayout;
 import javax.swing.BorderFactory;
 import javax.swing.ListSelectionModel;
 import javax.swing.AbstractButton;
+import javax.swing.SwingUtilities;
 
 import java.util.Enumeration;
 
@@ -31,7 +32,7 @@ import javax.swing.event.ListSelectionListener;
 
 import cs3500.animator.model.KeyMoment;
 import cs3500.animator.model.ReadOnlyAnimationModel;
-import cs3500.animator.model.Shape;
+import cs3500.animator.model.ReadOnlyShape;
 
 /**
  * This is an implementation of the InteractiveGraphicsView interface that uses Java Swing to draw
@@ -187,7 +188,7 @@ public class EditView implements InteractiveGraphicsView {
     commandPanel.add(createShapePanel);
 
     // radio buttons to remove shapes
-    List<Shape> shapes = m.getShapesInModel();
+    List<ReadOnlyShape> shapes = m.getShapesInModel();
     removeShapeGroup = new ButtonGroup();
     removeShapePanel = new JPanel();
     removeShapePanel.setBorder(BorderFactory.createTitledBorder("Remove shapes"));
@@ -284,7 +285,7 @@ public class EditView implements InteractiveGraphicsView {
     JPanel twoSelectionListPanel = new JPanel();
     twoSelectionListPanel.setLayout(new FlowLayout());
     dataForListOfShapes = new DefaultListModel<>();
-    for (Shape s : shapes) {
+    for (ReadOnlyShape s : shapes) {
       dataForListOfShapes.addElement(s.getName());
     }
 
@@ -295,7 +296,7 @@ public class EditView implements InteractiveGraphicsView {
     // keyframe selection list
     dataForListOfKeyFrames = new DefaultListModel<>();
     if (listOfRemovableShapes.getSelectedIndex() >= 0) {
-      Shape shapeToDisplay = shapes.get(listOfRemovableShapes.getSelectedIndex());
+      ReadOnlyShape shapeToDisplay = shapes.get(listOfRemovableShapes.getSelectedIndex());
       for (KeyMoment k : shapeToDisplay.getKeyMoments()) {
         dataForListOfKeyFrames.addElement("Tick: " + k.getTick() + " "
             + ", Color (R,G,B): (" + k.getColor().getR() + "," + k.getColor().getG()
@@ -332,18 +333,7 @@ public class EditView implements InteractiveGraphicsView {
 
     this.slider = new JSlider(0, 500, 5);
     slider.setAutoscrolls(true);
-    int largestTick = -1;
-    for (Shape s : m.getShapesInModel()) {
-      List<KeyMoment> km = s.getKeyMoments();
-      if (km.size() > 0) {
-
-        int thisTick = km.get(km.size() - 1).getTick();
-        if (thisTick > largestTick) {
-          largestTick = thisTick;
-        }
-      }
-    }
-    slider.setMaximum(largestTick);
+    slider.setMaximum(m.getLastTick());
     slider.addChangeListener(e -> {
       if (slider.getValueIsAdjusting()) { //if true event was generated by user.
         this.changeFrame(slider.getValue());
@@ -363,18 +353,7 @@ public class EditView implements InteractiveGraphicsView {
   }
 
   private void changeFrame(int value) {
-    int largestTick = -1;
-    for (Shape s : m.getShapesInModel()) {
-      List<KeyMoment> km = s.getKeyMoments();
-      if (km.size() > 0) {
-
-        int thisTick = km.get(km.size() - 1).getTick();
-        if (thisTick > largestTick) {
-          largestTick = thisTick;
-        }
-      }
-    }
-    if (value >= 0 && value <= largestTick) {
+    if (value >= 0 && value <= m.getLastTick()) {
       view.setTick(value);
     }
 
@@ -401,6 +380,8 @@ public class EditView implements InteractiveGraphicsView {
 
   @Override
   public void refresh() {
+    // the model may have grown, such as when its input is followed
+    slider.setMaximum(m.getLastTick());
     refreshRemoveButtons();
     refreshRemoveKeyFrameButtons();
     refreshSelectionList();
@@ -414,7 +395,7 @@ public class EditView implements InteractiveGraphicsView {
    */
   private void refreshRemoveButtons() {
     removeShapePanel.removeAll();
-    List<Shape> shapes = m.getShapesInModel();
+    List<ReadOnlyShape> shapes = m.getShapesInModel();
     JRadioButton[] removeRadioButtons = new JRadioButton[shapes.size()];
     for (int i = 0; i < removeRadioButtons.length; i++) {
       removeRadioButtons[i] = new JRadioButton(shapes.get(i).getName());
@@ -434,7 +415,8 @@ public class EditView implements InteractiveGraphicsView {
   public void refreshRemoveKeyFrameButtons() {
     dataForListOfKeyFrames.clear();
     if (listOfRemovableShapes.getSelectedIndex() >= 0) {
-      Shape shapeToDisplay = m.getShapesInModel().get(listOfRemovableShapes.getSelectedIndex());
+      ReadOnlyShape shapeToDisplay =
+          m.getShapesInModel().get(listOfRemovableShapes.getSelectedIndex());
       for (KeyMoment k : shapeToDisplay.getKeyMoments()) {
         dataForListOfKeyFrames.addElement("Tick: " + k.getTick() + " "
             + ", Color (R,G,B): (" + k.getColor().getR() + "," + k.getColor().getG()
@@ -449,7 +431,7 @@ public class EditView implements InteractiveGraphicsView {
    */
   private void refreshSelectionList() {
     dataForListOfShapes.clear();
-    for (Shape s : m.getShapesInModel()) {
+    for (ReadOnlyShape s : m.getShapesInModel()) {
       dataForListOfShapes.addElement(s.getName());
     }
   }
@@ -563,15 +545,22 @@ public class EditView implements InteractiveGraphicsView {
 
   @Override
   public void saveSVGFile() {
-    new SVGView(m, exportFile.getText(), ticksPerSec).makeVisible();
-    updateSaveDisplay();
+    // export a snapshot off the event thread, so editing can go on while it is written
+    final ReadOnlyAnimationModel snapshot = m.snapshot();
+    final String file = exportFile.getText();
+    new Thread(() -> {
+      new SVGView(snapshot, file, ticksPerSec).makeVisible();
+      SwingUtilities.invokeLater(() -> updateSaveDisplay(file));
+    }).start();
   }
 
   /**
    * Updates the display to notify the user that they have successfully saved the animation.
+   *
+   * @param file the file the animation was saved to
    */
-  private void updateSaveDisplay() {
-    exportDisplay.setText("You have successfully saved your animation to " + exportFile.getText());
+  private void updateSaveDisplay(String file) {
+    exportDisplay.setText("You have successfully saved your animation to " + file);
   }
 
   public int getTicksPerSec() {
@@ -593,6 +582,21 @@ public class EditView implements InteractiveGraphicsView {
     slider.setValue(0);
   }
 
+  @Override
+  public void play() {
+    view.play();
+  }
+
+  @Override
+  public void pause() {
+    view.pause();
+  }
+
+  @Override
+  public void setTicksPerSecond(double ticksPerSec) {
+    view.animationPanel.setTicksPerSecond(ticksPerSec);
+  }
+
 }
 
 
@@ -4,20 +4,40 @@ import cs3500.animator.controller.IController;
 import cs3500.animator.controller.MVCController;
 import cs3500.animator.view.InteractiveGraphicsView;
 
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
 
 import cs3500.animator.model.AnimationModel;
 import cs3500.animator.model.SimpleAnimation;
+import cs3500.animator.model.VersionedAnimation;
+import cs3500.animator.util.AnimationFollower;
+import cs3500.animator.util.AnimationLoader;
 import cs3500.animator.util.AnimationReader;
+import cs3500.animator.util.LazyAnimation;
 import cs3500.animator.view.AnimationView;
+import cs3500.animator.view.IVisualView;
 import cs3500.animator.view.ViewCreator;
 
 /**
- * Class representing the entry point to the program.
+ * Class representing the entry point to the program. An input or output named - is the standard
+ * input or output, so the textual, SVG and binary views can be used in a shell pipeline; these
+ * views run headless and never load the Swing classes.
  */
 public final class Excellence {
 
+  // name of the standard input or output in place of a file
+  private static final String STANDARD_STREAM = "-";
+
   /**
    * Runs the animation, depending on the inputs as command-line arguments.
    *
@@ -30,6 +50,13 @@ public final class Excellence {
     String viewType = null;
 
     int speed = 1;
+    // bytes the shapes read from a lazily loaded input may take, or -1 to load it fully
+    long lazyBudget = -1;
+    // milliseconds between polls of a followed input, or 0 to read it once
+    int followMillis = 0;
+    // most milliseconds between batches of an input read while it is viewed, or 0 to read it
+    // before it is viewed
+    int progressiveMillis = 0;
     for (int i = 0; i < args.length; i = i + 2) {
       String cmd = args[i];
       String detail = args[i + 1];
@@ -38,24 +65,147 @@ public final class Excellence {
       } else if (cmd.equals("-out")) {
         outputFile = detail;
       } else if (cmd.equals("-view")) {
-        viewType = detail;
+        // views are named in any case, as the view creator matches them
+        viewType = detail.toLowerCase(Locale.ROOT);
       } else if (cmd.equals("-speed")) {
         speed = Integer.parseInt(detail);
+      } else if (cmd.equals("-lazy")) {
+        lazyBudget = Long.parseLong(detail) << 20;
+      } else if (cmd.equals("-follow")) {
+        followMillis = Integer.parseInt(detail);
+      } else if (cmd.equals("-progressive")) {
+        progressiveMillis = Integer.parseInt(detail);
       } else {
         throw new IllegalArgumentException("no such command");
       }
     }
+    boolean visual = viewType.equals("visual") || viewType.equals("edit");
+    if (!visual) {
+      System.setProperty("java.awt.headless", "true");
+    }
+    if (STANDARD_STREAM.equals(outputFile)) {
+      outputFile = null;
+    }
+    boolean standardInput = STANDARD_STREAM.equals(inputFile);
+    if (standardInput && (followMillis > 0 || lazyBudget >= 0)) {
+      throw new IllegalArgumentException("The standard input can only be read once");
+    }
     try {
-      AnimationModel model = AnimationReader.parseFile(new FileReader(inputFile),
-              new SimpleAnimation.Builder());
+      // compressed and binary files cannot be indexed, so they are read in full instead
+      if (lazyBudget >= 0 && !viewType.equals("edit")
+              && LazyAnimation.canIndex(Paths.get(inputFile))) {
+        LazyAnimation lazy = new LazyAnimation(Paths.get(inputFile), lazyBudget);
+        new ViewCreator().create(viewType, lazy, outputFile, speed).makeVisible();
+        if (!visual) {
+          // a visual view keeps reading shapes until the program exits
+          lazy.close();
+        }
+        return;
+      }
+      AnimationModel model;
+      AnimationFollower follower = null;
+      AnimationLoader loader = null;
+      if (followMillis > 0) {
+        // lines appended later are added to the model while it is viewed
+        model = new VersionedAnimation();
+        follower = new AnimationFollower(Paths.get(inputFile), new SimpleAnimation.Builder(model));
+        poll(follower, (VersionedAnimation) model);
+      } else if ((progressiveMillis > 0) && visual && !standardInput) {
+        // the view shows what has been read so far while the rest is read
+        model = new VersionedAnimation();
+        loader = new AnimationLoader(Paths.get(inputFile), (VersionedAnimation) model,
+                progressiveMillis);
+      } else {
+        if (standardInput) {
+          // read through the file descriptor directly, since the lexer does its own buffering
+          model = AnimationReader.parseStream(new FileInputStream(FileDescriptor.in),
+                  new SimpleAnimation.BulkBuilder());
+        } else {
+          model = AnimationReader.parseFile(Paths.get(inputFile),
+                  new SimpleAnimation.BulkBuilder());
+        }
+        if (viewType.equals("edit")) {
+          // edits publish new snapshots, so background readers never see a half-made change
+          model = new VersionedAnimation(model);
+        }
+      }
       AnimationView view = new ViewCreator().create(viewType, model, outputFile, speed);
       if (viewType.equals("edit")) {
         IController c = new MVCController(model, (InteractiveGraphicsView) view);
         c.playAnimation();
       }
       view.makeVisible();
-    } catch (FileNotFoundException e) {
-      throw new IllegalStateException("File cannot be found");
+      if ((follower != null) && (view instanceof IVisualView)) {
+        follow(follower, (VersionedAnimation) model, (IVisualView) view, followMillis);
+      }
+      if (loader != null) {
+        load(loader, (IVisualView) view);
+      }
+    } catch (FileNotFoundException | NoSuchFileException e) {
+      throw new IllegalStateException("File cannot be found", e);
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot read input: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Reads the input in the background, refreshing the view whenever a batch was published. A
+   * failure to read the input is reported once the view shows what was read before it.
+   *
+   * @param loader the loader of the input
+   * @param view   the view of the model the input is read into
+   */
+  private static void load(AnimationLoader loader, IVisualView view) {
+    loader.start(() -> {
+      SwingUtilities.invokeLater(view::refresh);
+      if (loader.isDone() && (loader.getFailure() != null)) {
+        System.err.println(loader.getFailure().getMessage());
+      }
+    });
+  }
+
+  /**
+   * Polls the followed input in the background, refreshing the view whenever lines were added.
+   * A line that cannot be added is reported and skipped.
+   *
+   * @param follower the follower of the input
+   * @param model    the model the lines are added to
+   * @param view     the view of the model
+   * @param millis   the milliseconds between polls
+   */
+  private static void follow(AnimationFollower follower, VersionedAnimation model,
+                             IVisualView view, int millis) {
+    ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "follow");
+      t.setDaemon(true);
+      return t;
+    });
+    poller.scheduleWithFixedDelay(() -> {
+      try {
+        if (poll(follower, model) > 0) {
+          SwingUtilities.invokeLater(view::refresh);
+        }
+      } catch (IllegalStateException | IllegalArgumentException e) {
+        System.err.println(e.getMessage());
+        SwingUtilities.invokeLater(view::refresh);
+      }
+    }, millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Polls the followed input once, publishing every line added as one new state of the model
+   * rather than one per line, which would copy the shapes of the model for every line.
+   *
+   * @param follower the follower of the input
+   * @param model    the model the lines are added to
+   * @return the number of lines added.
+   */
+  private static int poll(AnimationFollower follower, VersionedAnimation model) {
+    model.beginBatch();
+    try {
+      return follower.poll();
+    } finally {
+      model.endBatch();
     }
   }
 }
\ No newline at end of file
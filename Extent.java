@@ -0,0 +1,148 @@
+package cs3500.animator.model;
+
+/**
+ * The extent of an animation in time and space: the first and last ticks of its key moments and
+ * the smallest box holding every shape at every key moment. Since shapes move linearly in between
+ * key moments, the box also holds every shape at every tick.
+ */
+final class Extent {
+
+  private int firstTick;
+  private int lastTick;
+  private int left;
+  private int top;
+  private int right;
+  private int bottom;
+
+  /**
+   * Constructs the extent of an animation with no key moments.
+   */
+  Extent() {
+    this.firstTick = -1;
+    this.lastTick = -1;
+  }
+
+  /**
+   * Copy constructor of an Extent.
+   *
+   * @param e the extent to copy
+   */
+  Extent(Extent e) {
+    this.firstTick = e.firstTick;
+    this.lastTick = e.lastTick;
+    this.left = e.left;
+    this.top = e.top;
+    this.right = e.right;
+    this.bottom = e.bottom;
+  }
+
+  /**
+   * Grows the extent to include a shape at a key moment.
+   *
+   * @param tick   the tick of the key moment
+   * @param x      the x-coordinate of the shape
+   * @param y      the y-coordinate of the shape
+   * @param width  the width of the shape
+   * @param height the height of the shape
+   */
+  void include(int tick, int x, int y, int width, int height) {
+    if (this.firstTick < 0) {
+      this.firstTick = tick;
+      this.lastTick = tick;
+      this.left = x;
+      this.top = y;
+      this.right = x + width;
+      this.bottom = y + height;
+    } else {
+      this.firstTick = Math.min(this.firstTick, tick);
+      this.lastTick = Math.max(this.lastTick, tick);
+      this.left = Math.min(this.left, x);
+      this.top = Math.min(this.top, y);
+      this.right = Math.max(this.right, x + width);
+      this.bottom = Math.max(this.bottom, y + height);
+    }
+  }
+
+  /**
+   * Grows the extent to include a shape at a key moment.
+   *
+   * @param tick the tick of the key moment
+   * @param pos  the position of the shape
+   * @param dim  the dimensions of the shape
+   */
+  void include(int tick, Position2D pos, Dimensions dim) {
+    include(tick, pos.getX(), pos.getY(), dim.getWidth(), dim.getHeight());
+  }
+
+  /**
+   * Grows the extent to include every key moment of the given shape.
+   *
+   * @param s the shape
+   */
+  void include(ReadOnlyShape s) {
+    for (int i = 0; i < s.getKeyMomentCount(); i++) {
+      include(s.getTick(i), s.getX(i), s.getY(i), s.getWidth(i), s.getHeight(i));
+    }
+  }
+
+  /**
+   * Determines if a shape at a key moment lies on the boundary of the extent, so the extent may
+   * shrink once that key moment is removed or replaced. Other key moments can be removed without
+   * changing the extent.
+   *
+   * @param tick   the tick of the key moment
+   * @param x      the x-coordinate of the shape
+   * @param y      the y-coordinate of the shape
+   * @param width  the width of the shape
+   * @param height the height of the shape
+   * @return true if the key moment is on the boundary of the extent.
+   */
+  boolean touches(int tick, int x, int y, int width, int height) {
+    return (tick == this.firstTick) || (tick == this.lastTick) || (x == this.left)
+            || (y == this.top) || (x + width == this.right) || (y + height == this.bottom);
+  }
+
+  /**
+   * Determines if any key moment of the given shape lies on the boundary of the extent, so the
+   * extent may shrink once the shape is removed.
+   *
+   * @param s the shape
+   * @return true if a key moment of the shape is on the boundary of the extent.
+   */
+  boolean touches(ReadOnlyShape s) {
+    for (int i = 0; i < s.getKeyMomentCount(); i++) {
+      if (touches(s.getTick(i), s.getX(i), s.getY(i), s.getWidth(i), s.getHeight(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the tick of the first key moment.
+   *
+   * @return the tick of the first key moment, or -1 if there are no key moments.
+   */
+  int getFirstTick() {
+    return this.firstTick;
+  }
+
+  /**
+   * Gets the tick of the last key moment.
+   *
+   * @return the tick of the last key moment, or -1 if there are no key moments.
+   */
+  int getLastTick() {
+    return this.lastTick;
+  }
+
+  /**
+   * Gets the smallest box holding every shape at every key moment.
+   *
+   * @return an array of int representing the left, top, width and height of the box, in this
+   *         order, which are all 0 if there are no key moments.
+   */
+  int[] getBounds() {
+    return new int[]{this.left, this.top, this.right - this.left, this.bottom - this.top};
+  }
+}
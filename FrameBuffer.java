@@ -0,0 +1,233 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer holding the state of every shape found at one tick of an animation, in terms
+ * of its type, position, dimensions and color. The buffer grows as needed and keeps its storage
+ * between frames, so sampling an animation into the same buffer frame after frame does not
+ * allocate. Every shape is kept with an identifier telling it apart from the other shapes of the
+ * animation, so the same shape can be found in the frames of other ticks.
+ */
+public final class FrameBuffer {
+
+  private int size;
+  private int[] ids;
+  private ShapeType[] types;
+  private int[] x;
+  private int[] y;
+  private int[] width;
+  private int[] height;
+  private int[] rgb;
+  // the identifier of the shapes added next
+  private int shapeId;
+  // the shapes found at the tick being sampled, kept with the buffer so sampling does not allocate
+  final IdList found;
+
+  /**
+   * Constructs an empty FrameBuffer.
+   */
+  public FrameBuffer() {
+    this(16);
+  }
+
+  /**
+   * Constructs an empty FrameBuffer with room for the given number of shapes.
+   *
+   * @param capacity the initial number of shapes the buffer can hold
+   * @throws IllegalArgumentException if the capacity is negative.
+   */
+  public FrameBuffer(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative.");
+    }
+    this.ids = new int[capacity];
+    this.types = new ShapeType[capacity];
+    this.x = new int[capacity];
+    this.y = new int[capacity];
+    this.width = new int[capacity];
+    this.height = new int[capacity];
+    this.rgb = new int[capacity];
+    this.found = new IdList();
+  }
+
+  /**
+   * Gets the list a model finds the shapes at the tick being sampled into, kept with the buffer so
+   * sampling does not allocate.
+   *
+   * @return the list of the shapes found.
+   */
+  public IdList getFound() {
+    return this.found;
+  }
+
+  /**
+   * Empties the buffer, keeping its storage.
+   */
+  public void clear() {
+    this.size = 0;
+  }
+
+  /**
+   * Sets the identifier of the shapes added to the buffer from now on. Models set it to the
+   * position of a shape, in the order the shapes were added to the model, before sampling the
+   * shape.
+   *
+   * @param id the identifier
+   */
+  public void setShapeId(int id) {
+    this.shapeId = id;
+  }
+
+  /**
+   * Appends the state of a shape to the buffer.
+   *
+   * @param type   the type of the shape
+   * @param x      the x-coordinate of the shape
+   * @param y      the y-coordinate of the shape
+   * @param width  the width of the shape
+   * @param height the height of the shape
+   * @param rgb    the color of the shape, packed as 0xRRGGBB
+   */
+  void add(ShapeType type, int x, int y, int width, int height, int rgb) {
+    if (this.size == this.types.length) {
+      int capacity = this.size + (this.size >> 1) + 1;
+      this.ids = Arrays.copyOf(this.ids, capacity);
+      this.types = Arrays.copyOf(this.types, capacity);
+      this.x = Arrays.copyOf(this.x, capacity);
+      this.y = Arrays.copyOf(this.y, capacity);
+      this.width = Arrays.copyOf(this.width, capacity);
+      this.height = Arrays.copyOf(this.height, capacity);
+      this.rgb = Arrays.copyOf(this.rgb, capacity);
+    }
+    this.ids[this.size] = this.shapeId;
+    this.types[this.size] = type;
+    this.x[this.size] = x;
+    this.y[this.size] = y;
+    this.width[this.size] = width;
+    this.height[this.size] = height;
+    this.rgb[this.size] = rgb;
+    this.size++;
+  }
+
+  /**
+   * Gets the number of shapes in the buffer.
+   *
+   * @return the number of shapes in the buffer.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Gets the identifier of the shape at the given index.
+   *
+   * @param i the index of the shape
+   * @return the identifier of the shape.
+   */
+  public int getId(int i) {
+    return this.ids[i];
+  }
+
+  /**
+   * Gets the type of the shape at the given index.
+   *
+   * @param i the index of the shape
+   * @return the type of the shape.
+   */
+  public ShapeType getType(int i) {
+    return this.types[i];
+  }
+
+  /**
+   * Gets the x-coordinate of the shape at the given index.
+   *
+   * @param i the index of the shape
+   * @return the x-coordinate of the shape.
+   */
+  public int getX(int i) {
+    return this.x[i];
+  }
+
+  /**
+   * Gets the y-coordinate of the shape at the given index.
+   *
+   * @param i the index of the shape
+   * @return the y-coordinate of the shape.
+   */
+  public int getY(int i) {
+    return this.y[i];
+  }
+
+  /**
+   * Gets the width of the shape at the given index.
+   *
+   * @param i the index of the shape
+   * @return the width of the shape.
+   */
+  public int getWidth(int i) {
+    return this.width[i];
+  }
+
+  /**
+   * Gets the height of the shape at the given index.
+   *
+   * @param i the index of the shape
+   * @return the height of the shape.
+   */
+  public int getHeight(int i) {
+    return this.height[i];
+  }
+
+  /**
+   * Gets the color of the shape at the given index.
+   *
+   * @param i the index of the shape
+   * @return the color of the shape, packed as 0xRRGGBB.
+   */
+  public int getRGB(int i) {
+    return this.rgb[i];
+  }
+
+  /**
+   * Moves every shape of this buffer the given fraction of the way to its state in the given
+   * buffer, such as the frame of the next tick, to show a fraction of a tick. A shape that is not
+   * found in the given buffer stays as it is. The shapes of both buffers must be in increasing
+   * order of their identifiers, as models sample them.
+   *
+   * @param next     the buffer to move the shapes towards
+   * @param fraction how far to move the shapes, from 0 to 1
+   */
+  public void interpolate(FrameBuffer next, double fraction) {
+    int j = 0;
+    for (int i = 0; i < this.size; i++) {
+      while ((j < next.size) && (next.ids[j] < this.ids[i])) {
+        j++;
+      }
+      if ((j == next.size) || (next.ids[j] != this.ids[i])) {
+        continue;
+      }
+      this.x[i] = lerp(this.x[i], next.x[j], fraction);
+      this.y[i] = lerp(this.y[i], next.y[j], fraction);
+      this.width[i] = lerp(this.width[i], next.width[j], fraction);
+      this.height[i] = lerp(this.height[i], next.height[j], fraction);
+      int from = this.rgb[i];
+      int to = next.rgb[j];
+      this.rgb[i] = (lerp(from >> 16, to >> 16, fraction) << 16)
+              | (lerp((from >> 8) & 0xFF, (to >> 8) & 0xFF, fraction) << 8)
+              | lerp(from & 0xFF, to & 0xFF, fraction);
+    }
+  }
+
+  /**
+   * Finds the value the given fraction of the way between two values.
+   *
+   * @param from     the first value
+   * @param to       the second value
+   * @param fraction how far to go, from 0 to 1
+   * @return the value in between, rounded.
+   */
+  private static int lerp(int from, int to, double fraction) {
+    return (int) Math.round(from + (to - from) * fraction);
+  }
+}
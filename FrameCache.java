@@ -0,0 +1,141 @@
+package cs3500.animator.view;
+
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the frames of an animation already drawn, so ticks drawn again, such as when scrubbing
+ * back and forth or looping, are drawn from memory. The ticks shown are recorded, so a frame is
+ * only worth keeping once its tick is shown again. Frames are kept for one version of the model
+ * only, and are all dropped once a frame of another version is asked for. The frames used least
+ * recently are dropped once the frames kept take more than a memory budget. The last frame dropped
+ * is held on to, so the next frame drawn can be drawn over it rather than into a new image.
+ */
+final class FrameCache {
+
+  private final long budget;
+  // frames by tick, from the least to the most recently used
+  private final LinkedHashMap<Integer, BufferedImage> frames;
+  // the ticks shown in the version
+  private final BitSet shown;
+  // the last frame dropped, or null if it was taken
+  private BufferedImage spare;
+  private long version;
+  private long used;
+
+  /**
+   * Constructs an empty FrameCache.
+   *
+   * @param budget the number of bytes the frames kept may take
+   */
+  FrameCache(long budget) {
+    this.budget = budget;
+    this.frames = new LinkedHashMap<>(16, 0.75f, true);
+    this.shown = new BitSet();
+  }
+
+  /**
+   * Records that the given tick of the given version of the model is shown.
+   *
+   * @param version the version of the model
+   * @param tick    the tick
+   * @return true if the tick was shown before.
+   */
+  boolean markShown(long version, int tick) {
+    if (version != this.version) {
+      clear();
+      this.version = version;
+    }
+    if (tick < 0) {
+      return false;
+    }
+    boolean before = this.shown.get(tick);
+    this.shown.set(tick);
+    return before;
+  }
+
+  /**
+   * Gets the frame of the given tick of the given version of the model.
+   *
+   * @param version the version of the model
+   * @param tick    the tick
+   * @return the frame, or null if it is not kept.
+   */
+  BufferedImage get(long version, int tick) {
+    if (version != this.version) {
+      clear();
+      this.version = version;
+      return null;
+    }
+    return this.frames.get(tick);
+  }
+
+  /**
+   * Keeps the frame of the given tick of the given version of the model.
+   *
+   * @param version the version of the model
+   * @param tick    the tick
+   * @param frame   the frame
+   */
+  void put(long version, int tick, BufferedImage frame) {
+    if (version != this.version) {
+      clear();
+      this.version = version;
+    }
+    BufferedImage replaced = this.frames.put(tick, frame);
+    if (replaced != null) {
+      this.used -= sizeOf(replaced);
+      this.spare = replaced;
+    }
+    this.used += sizeOf(frame);
+    // drop the least recently used frames, but never the one just kept
+    Iterator<Map.Entry<Integer, BufferedImage>> eldest = this.frames.entrySet().iterator();
+    while (this.used > this.budget && this.frames.size() > 1) {
+      this.spare = eldest.next().getValue();
+      this.used -= sizeOf(this.spare);
+      eldest.remove();
+    }
+  }
+
+  /**
+   * Takes the last frame dropped to draw another frame over, if it has the given size. The frame
+   * is no longer held on to either way.
+   *
+   * @param width  the width of the frame to draw
+   * @param height the height of the frame to draw
+   * @return the frame dropped, or null if there is none of the given size.
+   */
+  BufferedImage take(int width, int height) {
+    BufferedImage image = this.spare;
+    this.spare = null;
+    if ((image == null) || (image.getWidth() != width) || (image.getHeight() != height)) {
+      return null;
+    }
+    return image;
+  }
+
+  /**
+   * Drops every frame kept.
+   */
+  void clear() {
+    if (!this.frames.isEmpty()) {
+      this.spare = this.frames.values().iterator().next();
+    }
+    this.frames.clear();
+    this.shown.clear();
+    this.used = 0;
+  }
+
+  /**
+   * Gets the number of bytes the given frame takes, at four bytes a pixel.
+   *
+   * @param frame the frame
+   * @return the size of the frame.
+   */
+  private static long sizeOf(BufferedImage frame) {
+    return 4L * frame.getWidth() * frame.getHeight();
+  }
+}
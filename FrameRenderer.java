@@ -0,0 +1,42 @@
+package cs3500.animator.view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+
+import cs3500.animator.model.FrameBuffer;
+import cs3500.animator.model.ShapeType;
+
+/**
+ * Draws the shapes of a frame, as both the visual views and the headless frame export draw them:
+ * ellipses and rectangles filled in their color, in the order of the frame, placed relative to
+ * the top left corner of the canvas.
+ */
+final class FrameRenderer {
+
+  // the color last set, reused while the shapes drawn keep the same color
+  private Color color;
+
+  /**
+   * Draws all the shapes of the given frame.
+   *
+   * @param g2d    the graphics to draw the shapes into
+   * @param frame  the state of the shapes to draw
+   * @param canvas the canvas left, top, width and height, in this order
+   */
+  void draw(Graphics2D g2d, FrameBuffer frame, int[] canvas) {
+    for (int i = 0; i < frame.size(); i++) {
+      int rgb = frame.getRGB(i);
+      if ((color == null) || (color.getRGB() & 0xFFFFFF) != rgb) {
+        color = new Color(rgb);
+      }
+      g2d.setColor(color);
+      int posX = frame.getX(i) - canvas[0];
+      int posY = frame.getY(i) - canvas[1];
+      if (frame.getType(i) == ShapeType.ELLIPSE) {
+        g2d.fillOval(posX, posY, frame.getWidth(i), frame.getHeight(i));
+      } else {
+        g2d.fillRect(posX, posY, frame.getWidth(i), frame.getHeight(i));
+      }
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package cs3500.animator.view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import cs3500.animator.model.FrameBuffer;
+import cs3500.animator.model.ReadOnlyAnimationModel;
+
+/**
+ * This is an implementation of the AnimationView interface that draws every tick of the animation
+ * offscreen, by the same rules as the visual views, and writes the frames as a numbered sequence
+ * of PNG images, from frame000000.png for tick 0 to the last tick of the animation. The frames
+ * cover the canvas. No window is opened, so the view works on a headless system. Frames are drawn
+ * and encoded on as many threads as there are processors, each thread taking every so many ticks.
+ */
+public class FramesView implements AnimationView {
+
+  private final ReadOnlyAnimationModel model;
+  private final String directory;
+
+  /**
+   * Constructs a FramesView.
+   *
+   * @param model     the read only model
+   * @param directory name of the directory to write the frames to, which is made if needed, or
+   *                  null for the current directory
+   */
+  public FramesView(ReadOnlyAnimationModel model, String directory) {
+    this.model = model;
+    this.directory = directory;
+  }
+
+  @Override
+  public void makeVisible() {
+    try {
+      write();
+    } catch (IOException ioe) {
+      ViewOutput.reportFailure(directory);
+    }
+  }
+
+  /**
+   * Draws every tick of the animation and writes it to its file.
+   *
+   * @throws IOException if the directory cannot be made or a frame cannot be written.
+   */
+  public void write() throws IOException {
+    File dir = new File((directory == null) ? "." : directory);
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Cannot make " + dir);
+    }
+    // a snapshot can be read from every thread at once
+    ReadOnlyAnimationModel snapshot = model.snapshot();
+    int lastTick = snapshot.getLastTick();
+    int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), lastTick + 1));
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Void>> done = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        final int first = t;
+        done.add(pool.submit(() -> {
+          writeFrames(snapshot, dir, first, threads, lastTick);
+          return null;
+        }));
+      }
+      for (Future<Void> f : done) {
+        f.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while writing the frames");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Draws and writes every given tick, reusing one frame and one image for all of them.
+   *
+   * @param snapshot the animation
+   * @param dir      the directory to write to
+   * @param first    the first tick
+   * @param step     the number of ticks between two ticks drawn
+   * @param lastTick the last tick of the animation
+   * @throws IOException if a frame cannot be written.
+   */
+  private static void writeFrames(ReadOnlyAnimationModel snapshot, File dir, int first, int step,
+                                  int lastTick) throws IOException {
+    int[] canvas = snapshot.getCanvasDimensions();
+    BufferedImage image = new BufferedImage(Math.max(1, canvas[2]), Math.max(1, canvas[3]),
+            BufferedImage.TYPE_INT_RGB);
+    FrameBuffer frame = new FrameBuffer();
+    FrameRenderer renderer = new FrameRenderer();
+    for (int tick = first; tick <= lastTick; tick += step) {
+      snapshot.sampleFrame(tick, frame);
+      Graphics2D g2d = image.createGraphics();
+      g2d.setColor(Color.WHITE);
+      g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+      renderer.draw(g2d, frame, canvas);
+      g2d.dispose();
+      File file = new File(dir, String.format("frame%06d.png", tick));
+      if (!ImageIO.write(image, "png", file)) {
+        throw new IOException("No PNG writer is available");
+      }
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package cs3500.animator.view;
 
+import java.io.IOException;
+
 /**
  * A view for animations of shapes: provides textual representations of the animation.
  */
@@ -11,4 +13,13 @@ public interface ITextualView extends AnimationView {
    */
   String getView();
 
+  /**
+   * Writes the same representation as {@link #getView()} to the given output piece by piece, so
+   * the whole representation is never held in memory.
+   *
+   * @param out the output to write to
+   * @throws IOException if the output cannot be written.
+   */
+  void writeView(Appendable out) throws IOException;
+
 }
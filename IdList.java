@@ -0,0 +1,66 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of shape identifiers, reused between queries so looking up shapes does not
+ * allocate. Each reader owns its own list, so readers on different threads never share one.
+ * Lists are filled by {@link TemporalIndex} and can be read from anywhere.
+ */
+public final class IdList {
+
+  private int[] ids;
+  private int size;
+
+  /**
+   * Constructs an empty IdList.
+   */
+  public IdList() {
+    this.ids = new int[16];
+  }
+
+  /**
+   * Empties the list, keeping its storage.
+   */
+  void clear() {
+    this.size = 0;
+  }
+
+  /**
+   * Appends an identifier to the list.
+   *
+   * @param id the identifier
+   */
+  void add(int id) {
+    if (this.size == this.ids.length) {
+      this.ids = Arrays.copyOf(this.ids, this.size * 2);
+    }
+    this.ids[this.size++] = id;
+  }
+
+  /**
+   * Sorts the identifiers in ascending order.
+   */
+  void sort() {
+    Arrays.sort(this.ids, 0, this.size);
+  }
+
+  /**
+   * Gets the number of identifiers in the list.
+   *
+   * @return the number of identifiers.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Gets the identifier at the given position.
+   *
+   * @param i the position
+   * @return the identifier.
+   */
+  public int get(int i) {
+    return this.ids[i];
+  }
+}
@@ -147,4 +147,21 @@ public interface InteractiveGraphicsView extends IVisualView {
   void setStartResume();
 
   void setRestart();
+
+  /**
+   * Starts playing the animation from the tick shown.
+   */
+  void play();
+
+  /**
+   * Pauses the animation at the tick shown.
+   */
+  void pause();
+
+  /**
+   * Changes the tempo of the animation from the tick shown on.
+   *
+   * @param ticksPerSec the number of ticks per second.
+   */
+  void setTicksPerSecond(double ticksPerSec);
 }
@@ -3,15 +3,15 @@ package cs3500.animator.model;
 import java.util.Objects;
 
 /**
- * Represents a KeyMoment which encapsulates the tick, colour, dimension and position a shape
- * experiences during an animation.
+ * Represents an immutable KeyMoment which encapsulates the tick, colour, dimension and position a
+ * shape experiences during an animation.
  */
-public class KeyMoment {
+public final class KeyMoment {
 
   private final int tick;
-  private Color color;
-  private Dimensions dimensions;
-  private Position2D position;
+  private final Color color;
+  private final Dimensions dimensions;
+  private final Position2D position;
 
   /**
    * Constructs a KeyMoment of a 2D shape.
@@ -24,11 +24,7 @@ public class KeyMoment {
    *                                  invalid, less than 1.
    */
   public KeyMoment(int tick, Color color, Dimensions dimensions, Position2D position) {
-    if (color == null || dimensions == null || position == null) {
-      throw new IllegalArgumentException("Elements cannot be null.");
-    } else if (tick < 0) {
-      throw new IllegalArgumentException("Tick must start at 0.");
-    }
+    Shapes.ensureValidKeyMoment(tick, position, dimensions, color);
     this.tick = tick;
     this.color = color;
     this.dimensions = dimensions;
@@ -78,46 +74,91 @@ public class KeyMoment {
   /**
    * Getter method to get the position of this key moment.
    *
-   * @return a copy of the position of this key moment.
+   * @return the position of this key moment.
    */
   public Position2D getPos() {
-    return new Position2D(this.position);
+    return this.position;
   }
 
   /**
    * Getter method to get the color of this key moment.
    *
-   * @return a copy of the color of this key moment.
+   * @return the color of this key moment.
    */
   public Color getColor() {
-    return new Color(this.color);
+    return this.color;
   }
 
   /**
    * Getter method to get the dimensions of this key moment.
    *
-   * @return a copy of the dimensions of this key moment.
+   * @return the dimensions of this key moment.
    */
   public Dimensions getDimensions() {
-    return new Dimensions(this.dimensions);
+    return this.dimensions;
   }
 
   /**
-   * Updates the key moment to the given attributes, if not null.
+   * Creates a key moment at the same tick as this key moment, with the given attributes where not
+   * null and the attributes of this key moment otherwise.
    *
    * @param pos   the position
    * @param dim   the dimensions
    * @param color the color
+   * @return the updated key moment.
    */
-  public void updateKeyMoment(Position2D pos, Dimensions dim, Color color) {
-    if (pos != null) {
-      this.position = pos;
-    }
-    if (dim != null) {
-      this.dimensions = dim;
-    }
-    if (color != null) {
-      this.color = color;
-    }
+  public KeyMoment updateKeyMoment(Position2D pos, Dimensions dim, Color color) {
+    return new KeyMoment(this.tick,
+            (color != null) ? color : this.color,
+            (dim != null) ? dim : this.dimensions,
+            (pos != null) ? pos : this.position);
+  }
+
+  /**
+   * Writes the state of a shape of the given type at this key moment into the given frame buffer.
+   *
+   * @param type the type of the shape
+   * @param out  the frame buffer to write into
+   */
+  void writeTo(ShapeType type, FrameBuffer out) {
+    out.add(type, this.position.getX(), this.position.getY(), this.dimensions.getWidth(),
+            this.dimensions.getHeight(), this.color.getRGB());
+  }
+
+  /**
+   * Writes the intermediate state of a shape of the given type at the given tick, which is in
+   * between this key moment and the given next key moment, into the given frame buffer. Using
+   * linear interpolation, all components (color, dimensions and position) are found.
+   *
+   * @param next the key moment that comes after this key moment
+   * @param tick the tick in between the two key moments
+   * @param type the type of the shape
+   * @param out  the frame buffer to write into
+   */
+  void writeTweenTo(KeyMoment next, int tick, ShapeType type, FrameBuffer out) {
+    int r = tweening(tick, this.color.getR(), next.tick, next.color.getR());
+    int g = tweening(tick, this.color.getG(), next.tick, next.color.getG());
+    int b = tweening(tick, this.color.getB(), next.tick, next.color.getB());
+    out.add(type,
+            tweening(tick, this.position.getX(), next.tick, next.position.getX()),
+            tweening(tick, this.position.getY(), next.tick, next.position.getY()),
+            tweening(tick, this.dimensions.getWidth(), next.tick, next.dimensions.getWidth()),
+            tweening(tick, this.dimensions.getHeight(), next.tick, next.dimensions.getHeight()),
+            (r << 16) | (g << 8) | b);
+  }
+
+  /**
+   * Calculates the intermediate value of a component at the given tick, from its change per tick.
+   * This is the same arithmetic as {@link CompiledShape}, so both give the same frames.
+   *
+   * @param tick    the current tick
+   * @param initial the component at this key moment
+   * @param tick2   the tick of the next key moment
+   * @param next    the component at the next key moment
+   * @return the intermediate value
+   */
+  private int tweening(int tick, int initial, int tick2, int next) {
+    double slope = (double) (next - initial) / (tick2 - this.tick);
+    return (int) (initial + slope * (tick - this.tick));
   }
 }
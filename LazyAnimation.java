@@ -0,0 +1,430 @@
+package cs3500.animator.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import cs3500.animator.model.CompiledShape;
+import cs3500.animator.model.FrameBuffer;
+import cs3500.animator.model.IdList;
+import cs3500.animator.model.ReadOnlyAnimationModel;
+import cs3500.animator.model.ReadOnlyShape;
+import cs3500.animator.model.SimpleAnimation;
+import cs3500.animator.model.TemporalIndex;
+
+/**
+ * Represents an animation read from an uncompressed file in the textual format only as far as it
+ * is needed. A first pass over the file records where the motion and keyframe lines of every shape
+ * are, with the lifetime and the bounds of every shape, and nothing else. The key moments of a
+ * shape are read from the file the first time the shape is needed, and the shapes used least
+ * recently are dropped again once the shapes kept take more than a memory budget, so animations
+ * larger than the heap can be played and exported.
+ *
+ * <p>Shapes are read with {@link SimpleAnimation.BulkBuilder}, so they end up exactly as they
+ * would in a fully loaded model. Invalid motions are only reported when their shape is first
+ * read. The file is kept open until the animation is closed, and must not change while the
+ * animation is in use.</p>
+ */
+public final class LazyAnimation implements ReadOnlyAnimationModel, Closeable {
+
+  private final FileChannel channel;
+  private final long budget;
+  private final int[] canvas;
+  private final List<Entry> entries;
+  private final int firstTick;
+  private final int lastTick;
+  private final int[] bounds;
+  // lifetimes of the shapes by position, so finding the shapes at a tick reads no other shape
+  private final TemporalIndex timeline;
+  // shapes read from the file, from the least to the most recently used
+  private final LinkedHashMap<Integer, CompiledShape> loaded;
+  private long used;
+
+  /**
+   * Constructs a LazyAnimation indexing the given file.
+   *
+   * @param file   the file holding the animation in the textual format
+   * @param budget the number of bytes the shapes read from the file may take
+   * @throws IOException              if the file cannot be read.
+   * @throws IllegalStateException    if the file is malformed.
+   * @throws IllegalArgumentException if the file is compressed or binary, see
+   *                                  {@link #canIndex}, if a shape is declared twice or of an
+   *                                  unknown type, or if a motion is found for an undeclared
+   *                                  shape.
+   */
+  public LazyAnimation(Path file, long budget) throws IOException {
+    this.budget = budget;
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    Indexer indexer = new Indexer();
+    try {
+      if (AnimationReader.isEncoded(this.channel)) {
+        throw new IllegalArgumentException(
+                "Only an uncompressed file in the textual format can be read lazily");
+      }
+      // the stream is not closed, since closing it would close the channel
+      indexer.lexer = new AnimationLexer(Channels.newInputStream(this.channel));
+      AnimationReader.parseInto(indexer.lexer, indexer, new MotionFilter(indexer::dropped));
+    } catch (IOException | RuntimeException e) {
+      this.channel.close();
+      throw e;
+    }
+    this.canvas = indexer.canvas;
+    this.entries = indexer.entries;
+    int first = -1;
+    int last = -1;
+    int left = 0;
+    int top = 0;
+    int right = 0;
+    int bottom = 0;
+    for (Entry e : this.entries) {
+      if (e.firstTick < 0) {
+        continue;
+      }
+      if (first < 0) {
+        first = e.firstTick;
+        last = e.lastTick;
+        left = e.left;
+        top = e.top;
+        right = e.right;
+        bottom = e.bottom;
+      } else {
+        first = Math.min(first, e.firstTick);
+        last = Math.max(last, e.lastTick);
+        left = Math.min(left, e.left);
+        top = Math.min(top, e.top);
+        right = Math.max(right, e.right);
+        bottom = Math.max(bottom, e.bottom);
+      }
+    }
+    this.firstTick = first;
+    this.lastTick = last;
+    this.bounds = new int[]{left, top, right - left, bottom - top};
+    int[] start = new int[this.entries.size()];
+    int[] end = new int[this.entries.size()];
+    for (int i = 0; i < start.length; i++) {
+      start[i] = this.entries.get(i).firstTick;
+      end[i] = this.entries.get(i).lastTick;
+    }
+    this.timeline = new TemporalIndex(start, end);
+    this.loaded = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Determines if the given file can be read lazily, which is if it is in the textual format and
+   * not compressed. Compressed and binary files have to be read in full with
+   * {@link AnimationReader#parseFile(Path, AnimationBuilder)} instead.
+   *
+   * @param file the file holding the animation
+   * @return true if the file can be read lazily.
+   * @throws IOException if the file cannot be read.
+   */
+  public static boolean canIndex(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return !AnimationReader.isEncoded(channel);
+    }
+  }
+
+  /**
+   * Gets the shape at the given position, reading it from the file if it is not kept.
+   *
+   * @param id the position of the shape, in the order the shapes were declared
+   * @return the shape.
+   * @throws IllegalStateException if the file cannot be read.
+   */
+  private synchronized CompiledShape load(int id) {
+    CompiledShape shape = this.loaded.get(id);
+    if (shape != null) {
+      return shape;
+    }
+    shape = read(this.entries.get(id));
+    this.loaded.put(id, shape);
+    this.used += sizeOf(shape);
+    // drop the least recently used shapes, but never the one just read
+    Iterator<Map.Entry<Integer, CompiledShape>> eldest = this.loaded.entrySet().iterator();
+    while (this.used > this.budget && this.loaded.size() > 1) {
+      Map.Entry<Integer, CompiledShape> e = eldest.next();
+      this.used -= sizeOf(e.getValue());
+      eldest.remove();
+    }
+    return shape;
+  }
+
+  /**
+   * Reads the motion and keyframe lines of the given shape from the file.
+   *
+   * @param e the index entry of the shape
+   * @return the shape.
+   * @throws IllegalStateException if the file cannot be read.
+   */
+  private CompiledShape read(Entry e) {
+    SimpleAnimation.BulkBuilder builder = new SimpleAnimation.BulkBuilder();
+    builder.declareShape(e.name, e.type);
+    try {
+      for (int i = 0; i < e.regionCount; i++) {
+        long start = e.regions[2 * i];
+        ByteBuffer region = ByteBuffer.allocate((int) (e.regions[2 * i + 1] - start));
+        while (region.hasRemaining()) {
+          if (this.channel.read(region, start + region.position()) < 0) {
+            throw new IllegalStateException("Cannot read input: the file has changed");
+          }
+        }
+        region.flip();
+        AnimationReader.parseInto(new AnimationLexer(region), builder);
+      }
+    } catch (IOException ioe) {
+      throw new IllegalStateException("Cannot read input: " + ioe.getMessage());
+    }
+    return CompiledShape.of(builder.build().getShapesInModel().get(0));
+  }
+
+  /**
+   * Estimates the number of bytes the given shape takes.
+   *
+   * @param s the shape
+   * @return the estimated size of the shape.
+   */
+  private static long sizeOf(CompiledShape s) {
+    // seven components and a tick per key moment, and seven slopes per motion
+    return 128L + 32L * s.getKeyMomentCount() + 56L * s.getKeyMomentCount();
+  }
+
+  @Override
+  public List<ReadOnlyShape> getShapesInModel() {
+    return new AbstractList<ReadOnlyShape>() {
+      @Override
+      public ReadOnlyShape get(int index) {
+        return load(index);
+      }
+
+      @Override
+      public int size() {
+        return entries.size();
+      }
+    };
+  }
+
+  @Override
+  public int[] getCanvasDimensions() {
+    return this.canvas.clone();
+  }
+
+  @Override
+  public List<ReadOnlyShape> getShapesAtTick(int tick) {
+    IdList found = new IdList();
+    this.timeline.query(tick, found);
+    List<ReadOnlyShape> los = new ArrayList<>(found.size());
+    for (int i = 0; i < found.size(); i++) {
+      los.add(load(found.get(i)).getKeyMomentsAtTick(tick));
+    }
+    return los;
+  }
+
+  @Override
+  public void sampleFrame(int tick, FrameBuffer out) {
+    out.clear();
+    // the lifetimes are looked up without reading any shape, so only live shapes are read
+    IdList found = out.getFound();
+    this.timeline.query(tick, found);
+    for (int i = 0; i < found.size(); i++) {
+      int id = found.get(i);
+      out.setShapeId(id);
+      load(id).sampleInto(tick, out);
+    }
+  }
+
+  @Override
+  public int getFirstTick() {
+    return this.firstTick;
+  }
+
+  @Override
+  public int getLastTick() {
+    return this.lastTick;
+  }
+
+  @Override
+  public int[] getBounds() {
+    return this.bounds.clone();
+  }
+
+  @Override
+  public ReadOnlyAnimationModel snapshot() {
+    return this;
+  }
+
+  @Override
+  public long getVersion() {
+    // the file must not change, so neither does the animation
+    return 0;
+  }
+
+  /**
+   * Closes the file the shapes are read from. Shapes that are not kept can no longer be read.
+   *
+   * @throws IOException if the file cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  /**
+   * What the first pass over the file records about a shape.
+   */
+  private static final class Entry {
+    private final String name;
+    private final String type;
+    // start and end offsets of the runs of motion lines of the shape
+    private long[] regions;
+    private int regionCount;
+    private int firstTick;
+    private int lastTick;
+    private int left;
+    private int top;
+    private int right;
+    private int bottom;
+
+    private Entry(String name, String type) {
+      this.name = name;
+      this.type = type;
+      this.regions = new long[2];
+      this.firstTick = -1;
+      this.lastTick = -1;
+    }
+
+    /**
+     * Records that the file holds a motion line of this shape between the given offsets.
+     */
+    private void addRegion(long start, long end) {
+      if (this.regionCount > 0 && this.regions[2 * this.regionCount - 1] == start) {
+        this.regions[2 * this.regionCount - 1] = end;
+        return;
+      }
+      if (2 * this.regionCount == this.regions.length) {
+        long[] grown = new long[this.regions.length * 2];
+        System.arraycopy(this.regions, 0, grown, 0, this.regions.length);
+        this.regions = grown;
+      }
+      this.regions[2 * this.regionCount] = start;
+      this.regions[2 * this.regionCount + 1] = end;
+      this.regionCount++;
+    }
+
+    /**
+     * Includes a key moment in the lifetime and bounds of this shape.
+     */
+    private void include(int tick, int x, int y, int w, int h) {
+      if (this.firstTick < 0) {
+        this.firstTick = tick;
+        this.lastTick = tick;
+        this.left = x;
+        this.top = y;
+        this.right = x + w;
+        this.bottom = y + h;
+      } else {
+        this.firstTick = Math.min(this.firstTick, tick);
+        this.lastTick = Math.max(this.lastTick, tick);
+        this.left = Math.min(this.left, x);
+        this.top = Math.min(this.top, y);
+        this.right = Math.max(this.right, x + w);
+        this.bottom = Math.max(this.bottom, y + h);
+      }
+    }
+  }
+
+  /**
+   * Records the offsets of the lines of the file as the file is parsed.
+   */
+  private static final class Indexer implements AnimationBuilder<Void> {
+    private AnimationLexer lexer;
+    private int[] canvas = new int[4];
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Entry> byName = new HashMap<>();
+    // the offset the last line read ends at, which the next line starts from
+    private long end;
+
+    @Override
+    public Void build() {
+      return null;
+    }
+
+    @Override
+    public AnimationBuilder<Void> setBounds(int x, int y, int width, int height) {
+      this.canvas = new int[]{x, y, width, height};
+      this.end = this.lexer.offset();
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Void> declareShape(String name, String type) {
+      if (!type.equals("ellipse") && !type.equals("rectangle")) {
+        throw new IllegalArgumentException("No such shape allowed.");
+      }
+      if (this.byName.containsKey(name)) {
+        throw new IllegalArgumentException("No duplicates.");
+      }
+      Entry e = new Entry(name, type);
+      this.entries.add(e);
+      this.byName.put(name, e);
+      this.end = this.lexer.offset();
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Void> addMotion(String name, int t1, int x1, int y1, int w1, int h1,
+                                            int r1, int g1, int b1, int t2, int x2, int y2,
+                                            int w2, int h2, int r2, int g2, int b2) {
+      Entry e = this.byName.get(name);
+      if (e == null) {
+        throw new IllegalArgumentException("No such shape.");
+      }
+      long start = this.end;
+      this.end = this.lexer.offset();
+      e.addRegion(start, this.end);
+      // a motion that does not change anything adds no key moment
+      if (t1 != t2 || x1 != x2 || y1 != y2 || w1 != w2 || h1 != h2 || r1 != r2 || g1 != g2
+              || b1 != b2) {
+        e.include(t1, x1, y1, w1, h1);
+        e.include(t2, x2, y2, w2, h2);
+      }
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Void> addKeyframe(String name, int t, int x, int y, int w, int h,
+                                              int r, int g, int b) {
+      Entry e = this.byName.get(name);
+      if (e == null) {
+        throw new IllegalArgumentException("No such shape.");
+      }
+      long start = this.end;
+      this.end = this.lexer.offset();
+      e.addRegion(start, this.end);
+      e.include(t, x, y, w, h);
+      return this;
+    }
+
+    /**
+     * Records the line of a motion the filter dropped as a line of its shape, so it is not taken
+     * for part of the line after it. The motion changes nothing, so the shape is not grown.
+     *
+     * @param name the name of the shape of the motion, which a motion was passed on for before
+     */
+    private void dropped(String name) {
+      long start = this.end;
+      this.end = this.lexer.offset();
+      this.byName.get(name).addRegion(start, this.end);
+    }
+  }
+}
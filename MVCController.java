@@ -2,9 +2,9 @@ package cs3500.animator.controller;
 
 import cs3500.animator.model.Color;
 import cs3500.animator.model.Dimensions;
-import cs3500.animator.model.Oval;
+import cs3500.animator.model.PackedShape;
 import cs3500.animator.model.Position2D;
-import cs3500.animator.model.Rectangle;
+import cs3500.animator.model.ShapeType;
 import cs3500.animator.view.InteractiveGraphicsView;
 
 import java.awt.event.ActionEvent;
@@ -64,10 +64,12 @@ public class MVCController implements IController, ActionListener, ListSelection
       case "Start":
       case "Resume":
         timer.start();
+        view.play();
         view.setPause();
         break;
       case "Pause":
         timer.stop();
+        view.pause();
         view.setStartResume();
         break;
       case "Speed down":
@@ -75,11 +77,13 @@ public class MVCController implements IController, ActionListener, ListSelection
         if (timer.getDelay() - 15 > 1) {
           timer.setDelay(timer.getDelay() + 15);
         }
+        view.setTicksPerSecond(1000.0 / timer.getDelay());
         break;
       case "Speed up":
         if (timer.getDelay() - 15 > 1) {
           timer.setDelay(timer.getDelay() - 15);
         }
+        view.setTicksPerSecond(1000.0 / timer.getDelay());
         break;
       case "Restart":
         view.setRestart();
@@ -160,7 +164,7 @@ public class MVCController implements IController, ActionListener, ListSelection
     int j = sc.nextInt();
     int k = sc.nextInt();
     sc.close();
-    return new Color(i, j, k);
+    return Color.of(i, j, k);
   }
 
   @Override
@@ -187,9 +191,9 @@ public class MVCController implements IController, ActionListener, ListSelection
     } else {
       try {
         if (type.equals("Rectangle")) {
-          model.addShape(new Rectangle(name));
+          model.addShape(new PackedShape(name, ShapeType.RECTANGLE));
         } else {
-          model.addShape(new Oval(name));
+          model.addShape(new PackedShape(name, ShapeType.ELLIPSE));
         }
       } catch (IllegalArgumentException ex) {
         JOptionPane.showMessageDialog(null,
@@ -0,0 +1,113 @@
+package cs3500.animator.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Drops motion lines that cannot change the animation before they reach the builder, comparing
+ * only integers. A motion is dropped when it repeats the motion line just before it, or when it
+ * moves its shape nowhere in no time with valid values, which the builders would check and then
+ * ignore. Either kind is only dropped for the shape of the motion line just before it, which the
+ * builder has already accepted, so a motion of an undeclared shape is still reported. A reader that
+ * keeps track of where the lines it is given are can be told of every motion dropped, since the
+ * builder never sees those lines.
+ */
+final class MotionFilter {
+
+  private final int[] last;
+  // name of the shape of the last motion passed on, or null
+  private String lastName;
+  private final Map<String, String> names;
+  // told the name of the shape of every motion dropped, or null
+  private final Consumer<String> dropped;
+
+  /**
+   * Constructs a MotionFilter that has not seen any motion.
+   */
+  MotionFilter() {
+    this(null);
+  }
+
+  /**
+   * Constructs a MotionFilter that has not seen any motion, telling the given consumer the name of
+   * the shape of every motion it drops, as soon as the line of the motion has been read.
+   *
+   * @param dropped the consumer of the names of the shapes of the motions dropped, or null
+   */
+  MotionFilter(Consumer<String> dropped) {
+    this.last = new int[16];
+    this.names = new HashMap<>();
+    this.dropped = dropped;
+  }
+
+  /**
+   * Returns the one string kept for the given name, for names read as separate strings.
+   *
+   * @param name the name
+   * @return the string kept for the name.
+   */
+  String intern(String name) {
+    String kept = this.names.putIfAbsent(name, name);
+    return (kept == null) ? name : kept;
+  }
+
+  /**
+   * Determines if the given motion should be passed on to the builder, remembering it if so.
+   *
+   * @param name the name of the shape, as returned for every motion of the shape
+   * @param vals the 16 values of the motion
+   * @return true if the motion may change the animation.
+   */
+  boolean admit(String name, int[] vals) {
+    if (name.equals(this.lastName) && (isRepeated(vals) || isValidNoOp(vals))) {
+      if (this.dropped != null) {
+        this.dropped.accept(name);
+      }
+      return false;
+    }
+    System.arraycopy(vals, 0, this.last, 0, 16);
+    this.lastName = name;
+    return true;
+  }
+
+  /**
+   * Forgets the last motion passed on, such as when the builder rejected it, so the motion after
+   * it is passed on whatever it is.
+   */
+  void forget() {
+    this.lastName = null;
+  }
+
+  /**
+   * Determines if the given motion repeats the last motion passed on.
+   *
+   * @param vals the 16 values of the motion
+   * @return true if every value is the same.
+   */
+  private boolean isRepeated(int[] vals) {
+    for (int i = 0; i < 16; i++) {
+      if (vals[i] != this.last[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Determines if the given motion ends where and when it starts, with values the builders
+   * accept.
+   *
+   * @param vals the 16 values of the motion
+   * @return true if the motion changes nothing.
+   */
+  private static boolean isValidNoOp(int[] vals) {
+    for (int i = 0; i < 8; i++) {
+      if (vals[i] != vals[i + 8]) {
+        return false;
+      }
+    }
+    return (vals[0] >= 0) && (vals[3] > 0) && (vals[4] > 0)
+            && (((vals[5] | vals[6] | vals[7]) & ~0xFF) == 0);
+  }
+}
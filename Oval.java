@@ -2,7 +2,6 @@ package cs3500.animator.model;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.NavigableMap;
 
 /**
  * Represents an Oval shape that can be used in an animation.
@@ -34,7 +33,7 @@ public class Oval extends AbstractShape {
    * @param s the oval to copy
    */
   public Oval(AbstractShape s) {
-    this(s.name, s.keyMoments);
+    this(s.name, new ArrayList<KeyMoment>(s.keyMoments));
   }
 
   @Override
@@ -44,23 +43,15 @@ public class Oval extends AbstractShape {
 
   @Override
   public Shape getKeyMomentsAtTick(int tick) {
-    if (this.keyMoments.size() > 0) {
-      if ((this.keyMoments.get(0).getTick() > tick)
-              || (this.keyMoments.get(this.keyMoments.size() - 1).getTick() < tick)) {
-        return null;
-      } else {
-        NavigableMap<Integer, KeyMoment> map = makeMap();
-        List<KeyMoment> keyM = new ArrayList<>();
-        if (map.floorEntry(tick).getValue().equals(map.ceilingEntry(tick).getValue())) {
-          keyM.add(map.floorEntry(tick).getValue());
-        } else {
-          keyM.add(map.floorEntry(tick).getValue());
-          keyM.add(map.ceilingEntry(tick).getValue());
-        }
-        return new Oval(this.name, keyM);
-      }
-    } else {
+    int index = indexAtTick(tick);
+    if (index < 0) {
       return null;
     }
+    return new Oval(this.name, getClosestKeyMoments(index, tick));
+  }
+
+  @Override
+  public ShapeType getType() {
+    return ShapeType.ELLIPSE;
   }
 }
@@ -0,0 +1,431 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents a shape of any type that stores its key moments as parallel arrays of primitives
+ * instead of {@link KeyMoment} objects, with the color of every key moment packed into one int.
+ * It behaves like the other shapes, but needs several times less memory per key moment, which
+ * matters for animations with millions of key moments. The arrays grow as key moments are added.
+ * It is the shape the builders and the controller create, so the shapes of one model are all
+ * packed; it still compares equal to any other shape with the same name, type and key moments.
+ */
+public final class PackedShape implements Shape {
+
+  private final String name;
+  private final ShapeType type;
+  private int size;
+  private int[] ticks;
+  private int[] x;
+  private int[] y;
+  private int[] width;
+  private int[] height;
+  // colors packed as 0xRRGGBB
+  private int[] rgb;
+
+  /**
+   * Constructs a PackedShape, represented by its name and type with no key moments.
+   *
+   * @param name name of the shape
+   * @param type type of the shape
+   * @throws IllegalArgumentException if the name or type is null.
+   */
+  public PackedShape(String name, ShapeType type) {
+    this(name, type, 4);
+  }
+
+  /**
+   * Constructs a PackedShape, represented by its name and type with no key moments and room for
+   * the given number of key moments.
+   *
+   * @param name     name of the shape
+   * @param type     type of the shape
+   * @param capacity the initial number of key moments the shape can hold
+   * @throws IllegalArgumentException if the name or type is null or the capacity is negative.
+   */
+  public PackedShape(String name, ShapeType type, int capacity) {
+    if (name == null || type == null) {
+      throw new IllegalArgumentException("Name and type cannot be null.");
+    } else if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative.");
+    }
+    this.name = name;
+    this.type = type;
+    this.ticks = new int[capacity];
+    this.x = new int[capacity];
+    this.y = new int[capacity];
+    this.width = new int[capacity];
+    this.height = new int[capacity];
+    this.rgb = new int[capacity];
+  }
+
+  /**
+   * Copy constructor for a PackedShape.
+   *
+   * @param s the shape to copy
+   */
+  public PackedShape(PackedShape s) {
+    this.name = s.name;
+    this.type = s.type;
+    this.size = s.size;
+    this.ticks = Arrays.copyOf(s.ticks, s.size);
+    this.x = Arrays.copyOf(s.x, s.size);
+    this.y = Arrays.copyOf(s.y, s.size);
+    this.width = Arrays.copyOf(s.width, s.size);
+    this.height = Arrays.copyOf(s.height, s.size);
+    this.rgb = Arrays.copyOf(s.rgb, s.size);
+  }
+
+  @Override
+  public Shape createCopyShape() {
+    return new PackedShape(this);
+  }
+
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  public ShapeType getType() {
+    return this.type;
+  }
+
+  @Override
+  public void addAnimationShape(int startTick, Position2D startPosition,
+                                Dimensions startDimensions, Color startColor, int endTick,
+                                Position2D endPosition, Dimensions endDimensions,
+                                Color endColor) {
+    Shapes.ensureEndTickNotBeforeStart(startTick, endTick);
+    Shapes.ensureValidKeyMoment(startTick, startPosition, startDimensions, startColor);
+    Shapes.ensureValidKeyMoment(endTick, endPosition, endDimensions, endColor);
+    int startRGB = startColor.getRGB();
+    int endRGB = endColor.getRGB();
+    if ((startTick == endTick) && startPosition.equals(endPosition)
+            && startDimensions.equals(endDimensions) && (startRGB == endRGB)) {
+      return;
+    }
+    if (this.size > 0) {
+      int last = this.size - 1;
+      if ((this.ticks[last] != startTick) || (this.x[last] != startPosition.getX())
+              || (this.y[last] != startPosition.getY())
+              || (this.width[last] != startDimensions.getWidth())
+              || (this.height[last] != startDimensions.getHeight())
+              || (this.rgb[last] != startRGB)) {
+        throw new IllegalArgumentException(Shapes.NO_COMMON_ENDPOINT);
+      }
+    } else {
+      insert(0, startTick, startPosition.getX(), startPosition.getY(),
+              startDimensions.getWidth(), startDimensions.getHeight(), startRGB);
+    }
+    insert(this.size, endTick, endPosition.getX(), endPosition.getY(), endDimensions.getWidth(),
+            endDimensions.getHeight(), endRGB);
+  }
+
+  /**
+   * Inserts a key moment at the given index, growing the arrays if needed.
+   *
+   * @param index  the index to insert the key moment at
+   * @param tick   the tick
+   * @param x      the x-coordinate
+   * @param y      the y-coordinate
+   * @param width  the width
+   * @param height the height
+   * @param rgb    the color, packed as 0xRRGGBB
+   */
+  void insert(int index, int tick, int x, int y, int width, int height, int rgb) {
+    if (this.size == this.ticks.length) {
+      int capacity = this.size + (this.size >> 1) + 1;
+      this.ticks = Arrays.copyOf(this.ticks, capacity);
+      this.x = Arrays.copyOf(this.x, capacity);
+      this.y = Arrays.copyOf(this.y, capacity);
+      this.width = Arrays.copyOf(this.width, capacity);
+      this.height = Arrays.copyOf(this.height, capacity);
+      this.rgb = Arrays.copyOf(this.rgb, capacity);
+    }
+    int moved = this.size - index;
+    if (moved > 0) {
+      System.arraycopy(this.ticks, index, this.ticks, index + 1, moved);
+      System.arraycopy(this.x, index, this.x, index + 1, moved);
+      System.arraycopy(this.y, index, this.y, index + 1, moved);
+      System.arraycopy(this.width, index, this.width, index + 1, moved);
+      System.arraycopy(this.height, index, this.height, index + 1, moved);
+      System.arraycopy(this.rgb, index, this.rgb, index + 1, moved);
+    }
+    this.ticks[index] = tick;
+    this.x[index] = x;
+    this.y[index] = y;
+    this.width[index] = width;
+    this.height[index] = height;
+    this.rgb[index] = rgb;
+    this.size++;
+  }
+
+  /**
+   * Sets the key moment at the given tick, replacing the key moment found at that tick or
+   * inserting a new one. A key moment after every other one is appended without searching.
+   *
+   * @param tick   the tick
+   * @param x      the x-coordinate
+   * @param y      the y-coordinate
+   * @param width  the width
+   * @param height the height
+   * @param rgb    the color, packed as 0xRRGGBB
+   */
+  void put(int tick, int x, int y, int width, int height, int rgb) {
+    int index = ((this.size == 0) || (this.ticks[this.size - 1] < tick))
+            ? -(this.size + 1) : Arrays.binarySearch(this.ticks, 0, this.size, tick);
+    if (index < 0) {
+      insert(-(index + 1), tick, x, y, width, height, rgb);
+    } else {
+      this.x[index] = x;
+      this.y[index] = y;
+      this.width[index] = width;
+      this.height[index] = height;
+      this.rgb[index] = rgb;
+    }
+  }
+
+  @Override
+  public List<KeyMoment> getKeyMoments() {
+    List<KeyMoment> keyMoments = new ArrayList<>(this.size);
+    for (int i = 0; i < this.size; i++) {
+      keyMoments.add(getKeyMoment(i));
+    }
+    return keyMoments;
+  }
+
+  /**
+   * Creates the key moment at the given index.
+   *
+   * @param i the index of the key moment
+   * @return the key moment.
+   */
+  private KeyMoment getKeyMoment(int i) {
+    int color = this.rgb[i];
+    return new KeyMoment(this.ticks[i],
+            Color.of((color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF),
+            new Dimensions(this.width[i], this.height[i]), new Position2D(this.x[i], this.y[i]));
+  }
+
+  @Override
+  public Shape getKeyMomentsAtTick(int tick) {
+    int floor = floorIndex(tick);
+    if (floor < 0) {
+      return null;
+    }
+    int count = (this.ticks[floor] == tick) ? 1 : 2;
+    PackedShape s = new PackedShape(this.name, this.type, count);
+    for (int i = floor; i < floor + count; i++) {
+      s.insert(s.size, this.ticks[i], this.x[i], this.y[i], this.width[i], this.height[i],
+              this.rgb[i]);
+    }
+    return s;
+  }
+
+  @Override
+  public void removeKeyMomentAt(int tickOfAnimationToRemove) {
+    int index = Arrays.binarySearch(this.ticks, 0, this.size, tickOfAnimationToRemove);
+    if (index < 0) {
+      throw new IllegalArgumentException(Shapes.NO_SUCH_KEY_MOMENT);
+    }
+    int moved = this.size - index - 1;
+    System.arraycopy(this.ticks, index + 1, this.ticks, index, moved);
+    System.arraycopy(this.x, index + 1, this.x, index, moved);
+    System.arraycopy(this.y, index + 1, this.y, index, moved);
+    System.arraycopy(this.width, index + 1, this.width, index, moved);
+    System.arraycopy(this.height, index + 1, this.height, index, moved);
+    System.arraycopy(this.rgb, index + 1, this.rgb, index, moved);
+    this.size--;
+  }
+
+  @Override
+  public void addKeyframe(int tick, Position2D pos, Dimensions dim, Color color) {
+    int index = Arrays.binarySearch(this.ticks, 0, this.size, tick);
+    if (index >= 0) {
+      if (pos != null) {
+        this.x[index] = pos.getX();
+        this.y[index] = pos.getY();
+      }
+      if (dim != null) {
+        this.width[index] = dim.getWidth();
+        this.height[index] = dim.getHeight();
+      }
+      if (color != null) {
+        this.rgb[index] = color.getRGB();
+      }
+    } else if ((pos != null) && (dim != null) && (color != null)) {
+      Shapes.ensureValidKeyMoment(tick, pos, dim, color);
+      insert(-(index + 1), tick, pos.getX(), pos.getY(), dim.getWidth(), dim.getHeight(),
+              color.getRGB());
+    } else {
+      throw new IllegalArgumentException(Shapes.INCOMPLETE_KEYFRAME);
+    }
+  }
+
+  @Override
+  public int getKeyMomentCount() {
+    return this.size;
+  }
+
+  @Override
+  public int getTick(int i) {
+    return this.ticks[i];
+  }
+
+  @Override
+  public int getX(int i) {
+    return this.x[i];
+  }
+
+  @Override
+  public int getY(int i) {
+    return this.y[i];
+  }
+
+  @Override
+  public int getWidth(int i) {
+    return this.width[i];
+  }
+
+  @Override
+  public int getHeight(int i) {
+    return this.height[i];
+  }
+
+  @Override
+  public int getR(int i) {
+    return (this.rgb[i] >> 16) & 0xFF;
+  }
+
+  @Override
+  public int getG(int i) {
+    return (this.rgb[i] >> 8) & 0xFF;
+  }
+
+  @Override
+  public int getB(int i) {
+    return this.rgb[i] & 0xFF;
+  }
+
+  @Override
+  public int getFirstTick() {
+    if (this.size == 0) {
+      return -1;
+    }
+    return this.ticks[0];
+  }
+
+  @Override
+  public int getLastTick() {
+    if (this.size == 0) {
+      return -1;
+    }
+    return this.ticks[this.size - 1];
+  }
+
+  @Override
+  public void sampleInto(int tick, FrameBuffer out) {
+    int floor = floorIndex(tick);
+    if (floor < 0) {
+      return;
+    }
+    if (this.ticks[floor] == tick) {
+      out.add(this.type, this.x[floor], this.y[floor], this.width[floor], this.height[floor],
+              this.rgb[floor]);
+    } else {
+      int next = floor + 1;
+      int t1 = this.ticks[floor];
+      int t2 = this.ticks[next];
+      int rgb1 = this.rgb[floor];
+      int rgb2 = this.rgb[next];
+      int r = tweening(tick, t1, (rgb1 >> 16) & 0xFF, t2, (rgb2 >> 16) & 0xFF);
+      int g = tweening(tick, t1, (rgb1 >> 8) & 0xFF, t2, (rgb2 >> 8) & 0xFF);
+      int b = tweening(tick, t1, rgb1 & 0xFF, t2, rgb2 & 0xFF);
+      out.add(this.type,
+              tweening(tick, t1, this.x[floor], t2, this.x[next]),
+              tweening(tick, t1, this.y[floor], t2, this.y[next]),
+              tweening(tick, t1, this.width[floor], t2, this.width[next]),
+              tweening(tick, t1, this.height[floor], t2, this.height[next]),
+              (r << 16) | (g << 8) | b);
+    }
+  }
+
+  /**
+   * Calculates the intermediate value of a component at the given tick, from its change per tick.
+   *
+   * @param tick    the current tick
+   * @param tick1   the tick of the previous key moment
+   * @param initial the component at the previous key moment
+   * @param tick2   the tick of the next key moment
+   * @param next    the component at the next key moment
+   * @return the intermediate value
+   */
+  private int tweening(int tick, int tick1, int initial, int tick2, int next) {
+    double slope = (double) (next - initial) / (tick2 - tick1);
+    return (int) (initial + slope * (tick - tick1));
+  }
+
+  /**
+   * Finds the index of the last key moment whose tick is lesser than or equals to the given tick,
+   * as long as the shape is found at the given tick.
+   *
+   * @param tick the tick to look for
+   * @return the index of the key moment, or -1 if the shape is not found at the given tick
+   */
+  private int floorIndex(int tick) {
+    if ((this.size == 0) || (this.ticks[0] > tick) || (this.ticks[this.size - 1] < tick)) {
+      return -1;
+    }
+    int low = 0;
+    int high = this.size - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (this.ticks[mid] <= tick) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Compiles this shape for playback, directly from its arrays.
+   *
+   * @return the compiled shape.
+   */
+  CompiledShape compile() {
+    int[] values = new int[this.size * CompiledShape.COMPONENTS];
+    for (int i = 0; i < this.size; i++) {
+      int v = i * CompiledShape.COMPONENTS;
+      values[v] = this.x[i];
+      values[v + 1] = this.y[i];
+      values[v + 2] = this.width[i];
+      values[v + 3] = this.height[i];
+      values[v + 4] = (this.rgb[i] >> 16) & 0xFF;
+      values[v + 5] = (this.rgb[i] >> 8) & 0xFF;
+      values[v + 6] = this.rgb[i] & 0xFF;
+    }
+    return new CompiledShape(this.name, this.type, Arrays.copyOf(this.ticks, this.size), values);
+  }
+
+  @Override
+  public boolean equals(Object a) {
+    if (this == a) {
+      return true;
+    }
+    if (!(a instanceof ReadOnlyShape)) {
+      return false;
+    }
+
+    return Shapes.equal(this, (ReadOnlyShape) a);
+  }
+
+  @Override
+  public int hashCode() {
+    return Shapes.hash(this);
+  }
+}
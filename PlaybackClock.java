@@ -0,0 +1,96 @@
+package cs3500.animator.view;
+
+/**
+ * Tells which tick of an animation should be shown, from the time gone by since playback started
+ * and the number of ticks per second. The tick is a fraction, and does not depend on how often or
+ * how fast frames are painted: painting more often than ticks go by shows the ticks in between,
+ * and painting less often skips ticks, so the animation always plays at the same speed.
+ */
+final class PlaybackClock {
+
+  private double ticksPerSecond;
+  // the tick shown at the origin, and when the origin was set
+  private double originTick;
+  private long originNanos;
+  private boolean running;
+
+  /**
+   * Constructs a paused PlaybackClock at the given tick.
+   *
+   * @param tick           the tick to start at
+   * @param ticksPerSecond the number of ticks per second
+   * @throws IllegalArgumentException if the number of ticks per second is not positive.
+   */
+  PlaybackClock(double tick, double ticksPerSecond) {
+    if (!(ticksPerSecond > 0)) {
+      throw new IllegalArgumentException("Ticks per second must be positive.");
+    }
+    this.originTick = tick;
+    this.ticksPerSecond = ticksPerSecond;
+  }
+
+  /**
+   * Gets the tick that should be shown now.
+   *
+   * @return the tick, with its fraction.
+   */
+  double getTick() {
+    if (!this.running) {
+      return this.originTick;
+    }
+    return this.originTick + (System.nanoTime() - this.originNanos) * this.ticksPerSecond / 1e9;
+  }
+
+  /**
+   * Gets the number of ticks per second.
+   *
+   * @return the number of ticks per second.
+   */
+  double getTicksPerSecond() {
+    return this.ticksPerSecond;
+  }
+
+  /**
+   * Moves the clock to the given tick, keeping it running or paused.
+   *
+   * @param tick the tick
+   */
+  void setTick(double tick) {
+    this.originTick = tick;
+    this.originNanos = System.nanoTime();
+  }
+
+  /**
+   * Changes the number of ticks per second from the tick that should be shown now on.
+   *
+   * @param ticksPerSecond the number of ticks per second
+   * @throws IllegalArgumentException if the number of ticks per second is not positive.
+   */
+  void setTicksPerSecond(double ticksPerSecond) {
+    if (!(ticksPerSecond > 0)) {
+      throw new IllegalArgumentException("Ticks per second must be positive.");
+    }
+    setTick(getTick());
+    this.ticksPerSecond = ticksPerSecond;
+  }
+
+  /**
+   * Starts the clock, or keeps it running.
+   */
+  void start() {
+    if (!this.running) {
+      setTick(this.originTick);
+      this.running = true;
+    }
+  }
+
+  /**
+   * Pauses the clock at the tick that should be shown now.
+   */
+  void pause() {
+    if (this.running) {
+      setTick(getTick());
+      this.running = false;
+    }
+  }
+}
@@ -3,10 +3,10 @@ package cs3500.animator.model;
 import java.util.Objects;
 
 /**
- * This class represents a 2D position used for animation.
+ * This class represents an immutable 2D position used for animation.
  */
 
-public class Position2D {
+public final class Position2D {
 
   private final int x;
   private final int y;
@@ -12,7 +12,7 @@ public interface ReadOnlyAnimationModel {
    *
    * @return a list of shapes found in the model.
    */
-  List<Shape> getShapesInModel();
+  List<ReadOnlyShape> getShapesInModel();
 
   /**
    * Gets the dimensions of the canvas used for this animation.
@@ -23,11 +23,58 @@ public interface ReadOnlyAnimationModel {
 
   /**
    * Gets the list of shapes (with only the closest key moments to that tick) that should be
-   * participating in the animation at the given tick. The return list should have the same size as
-   * the list of shapes found in the model whereby null representing that the shape is not found at
-   * the given tick.
+   * participating in the animation at the given tick, in the order the shapes were added to the
+   * model. Shapes that are not found at the given tick are left out.
    *
    * @return a list of shapes at the given tick.
    */
-  List<Shape> getShapesAtTick(int t);
+  List<ReadOnlyShape> getShapesAtTick(int t);
+
+  /**
+   * Writes the state at the given tick of every shape participating in the animation at that tick
+   * into the given frame buffer, in the order the shapes were added to the model. The previous
+   * contents of the buffer are discarded.
+   *
+   * @param tick the tick
+   * @param out  the frame buffer to write into
+   */
+  void sampleFrame(int tick, FrameBuffer out);
+
+  /**
+   * Gets the tick of the first key moment of any shape found in the model.
+   *
+   * @return the first tick of the animation, or -1 if no shape has key moments.
+   */
+  int getFirstTick();
+
+  /**
+   * Gets the tick of the last key moment of any shape found in the model.
+   *
+   * @return the last tick of the animation, or -1 if no shape has key moments.
+   */
+  int getLastTick();
+
+  /**
+   * Gets the smallest box that holds every shape found in the model at every tick.
+   *
+   * @return an array of int representing the left, top, width and height of the box, in this
+   *         order, which are all 0 if no shape has key moments.
+   */
+  int[] getBounds();
+
+  /**
+   * Gets an immutable snapshot of the current state of the model, which is not affected by later
+   * changes to the model and can be read from any thread.
+   *
+   * @return a snapshot of the model.
+   */
+  ReadOnlyAnimationModel snapshot();
+
+  /**
+   * Gets the version of the model, which changes with every change made to the model, so what was
+   * derived from one version of the model can be told apart from what is derived from another.
+   *
+   * @return the version of the model.
+   */
+  long getVersion();
 }
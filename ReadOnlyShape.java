@@ -0,0 +1,138 @@
+package cs3500.animator.model;
+
+import java.util.List;
+
+/**
+ * This interface specifies the operations to read a shape without changing it. The key moments of
+ * the shape can be read one component at a time by their index, in chronological order, without
+ * creating {@link KeyMoment} objects.
+ */
+public interface ReadOnlyShape {
+
+  /**
+   * Returns the name of the shape.
+   *
+   * @return a string representing the name of a shape.
+   */
+  String getName();
+
+  /**
+   * Gets the type of the shape.
+   *
+   * @return the type of the shape.
+   */
+  ShapeType getType();
+
+  /**
+   * Gets the list of key moments that the shape experiences.
+   *
+   * @return the list of key moments of the shape
+   */
+  List<KeyMoment> getKeyMoments();
+
+  /**
+   * Filters the shape to only include the key moments that are nearest to the given tick. If the
+   * given tick is one of the tick of the key moments found in the shape, it will only return that
+   * particular key moment associated to that tick. If the given tick is in between two key moments
+   * of the shape, it will return both the closest key moments.
+   *
+   * @param tick tick
+   * @return the shape with only the closest key moments to the given tick, or null if the shape is
+   *         not found at the given tick.
+   */
+  ReadOnlyShape getKeyMomentsAtTick(int tick);
+
+  /**
+   * Gets the tick of the first key moment of the shape.
+   *
+   * @return the tick of the first key moment, or -1 if the shape has no key moments.
+   */
+  int getFirstTick();
+
+  /**
+   * Gets the tick of the last key moment of the shape.
+   *
+   * @return the tick of the last key moment, or -1 if the shape has no key moments.
+   */
+  int getLastTick();
+
+  /**
+   * Writes the state of the shape at the given tick into the given frame buffer, tweening in
+   * between key moments if needed. Nothing is written if the shape is not found at the given tick.
+   *
+   * @param tick the tick
+   * @param out  the frame buffer to write into
+   */
+  void sampleInto(int tick, FrameBuffer out);
+
+  /**
+   * Gets the number of key moments of the shape.
+   *
+   * @return the number of key moments.
+   */
+  int getKeyMomentCount();
+
+  /**
+   * Gets the tick of the key moment at the given index.
+   *
+   * @param i the index of the key moment
+   * @return the tick of the key moment.
+   */
+  int getTick(int i);
+
+  /**
+   * Gets the x-coordinate of the key moment at the given index.
+   *
+   * @param i the index of the key moment
+   * @return the x-coordinate of the key moment.
+   */
+  int getX(int i);
+
+  /**
+   * Gets the y-coordinate of the key moment at the given index.
+   *
+   * @param i the index of the key moment
+   * @return the y-coordinate of the key moment.
+   */
+  int getY(int i);
+
+  /**
+   * Gets the width of the key moment at the given index.
+   *
+   * @param i the index of the key moment
+   * @return the width of the key moment.
+   */
+  int getWidth(int i);
+
+  /**
+   * Gets the height of the key moment at the given index.
+   *
+   * @param i the index of the key moment
+   * @return the height of the key moment.
+   */
+  int getHeight(int i);
+
+  /**
+   * Gets the R component of the color of the key moment at the given index.
+   *
+   * @param i the index of the key moment
+   * @return the R component of the color of the key moment.
+   */
+  int getR(int i);
+
+  /**
+   * Gets the G component of the color of the key moment at the given index.
+   *
+   * @param i the index of the key moment
+   * @return the G component of the color of the key moment.
+   */
+  int getG(int i);
+
+  /**
+   * Gets the B component of the color of the key moment at the given index.
+   *
+   * @param i the index of the key moment
+   * @return the B component of the color of the key moment.
+   */
+  int getB(int i);
+}
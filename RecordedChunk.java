@@ -0,0 +1,187 @@
+package cs3500.animator.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records the calls made to it while a chunk of animation input is parsed, so they can be made
+ * again on the real builder once every chunk before it has been replayed. Calls are kept as
+ * integers in one growing array, and strings are kept once per run of equal names.
+ */
+final class RecordedChunk implements AnimationBuilder<RecordedChunk> {
+
+  private static final int CANVAS = 0;
+  private static final int SHAPE = 1;
+  private static final int MOTION = 2;
+  private static final int KEYFRAME = 3;
+
+  private int[] calls;
+  private int size;
+  private final List<String> strings;
+  // true if the chunk could not be parsed on its own
+  private boolean failed;
+
+  /**
+   * Constructs an empty RecordedChunk.
+   */
+  RecordedChunk() {
+    this.calls = new int[1024];
+    this.strings = new ArrayList<>();
+  }
+
+  /**
+   * Marks this chunk as one that could not be parsed on its own, which happens on malformed input
+   * and when the chunk does not start at the start of a line of input.
+   */
+  void fail() {
+    this.failed = true;
+  }
+
+  /**
+   * Determines if this chunk could not be parsed on its own.
+   *
+   * @return true if the chunk has to be parsed again in file order.
+   */
+  boolean hasFailed() {
+    return this.failed;
+  }
+
+  /**
+   * Makes every recorded call again on the given builder, in the order they were recorded.
+   *
+   * @param builder the builder to make the calls on
+   * @param <Doc>   The main model interface type describing animations
+   */
+  <Doc> void replay(AnimationBuilder<Doc> builder) {
+    int[] c = this.calls;
+    int i = 0;
+    while (i < this.size) {
+      switch (c[i]) {
+        case CANVAS:
+          builder.setBounds(c[i + 1], c[i + 2], c[i + 3], c[i + 4]);
+          i += 5;
+          break;
+        case SHAPE:
+          builder.declareShape(this.strings.get(c[i + 1]), this.strings.get(c[i + 2]));
+          i += 3;
+          break;
+        case MOTION:
+          builder.addMotion(this.strings.get(c[i + 1]),
+                  c[i + 2], c[i + 3], c[i + 4], c[i + 5], c[i + 6], c[i + 7], c[i + 8], c[i + 9],
+                  c[i + 10], c[i + 11], c[i + 12], c[i + 13], c[i + 14], c[i + 15], c[i + 16],
+                  c[i + 17]);
+          i += 18;
+          break;
+        case KEYFRAME:
+          builder.addKeyframe(this.strings.get(c[i + 1]),
+                  c[i + 2], c[i + 3], c[i + 4], c[i + 5], c[i + 6], c[i + 7], c[i + 8], c[i + 9]);
+          i += 10;
+          break;
+        default:
+          throw new IllegalStateException("Unknown recorded call.");
+      }
+    }
+  }
+
+  /**
+   * Makes room for the given number of integers.
+   *
+   * @param count the number of integers to add
+   */
+  private void ensureCapacity(int count) {
+    if (this.size + count > this.calls.length) {
+      this.calls = Arrays.copyOf(this.calls, Math.max(this.calls.length * 2, this.size + count));
+    }
+  }
+
+  /**
+   * Gets the index of the given string, reusing the last string when it is the same one.
+   *
+   * @param s the string
+   * @return the index of the string.
+   */
+  private int indexOf(String s) {
+    int last = this.strings.size() - 1;
+    if (last < 0 || !this.strings.get(last).equals(s)) {
+      this.strings.add(s);
+      last++;
+    }
+    return last;
+  }
+
+  @Override
+  public RecordedChunk build() {
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<RecordedChunk> setBounds(int x, int y, int width, int height) {
+    ensureCapacity(5);
+    this.calls[this.size++] = CANVAS;
+    this.calls[this.size++] = x;
+    this.calls[this.size++] = y;
+    this.calls[this.size++] = width;
+    this.calls[this.size++] = height;
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<RecordedChunk> declareShape(String name, String type) {
+    ensureCapacity(3);
+    this.calls[this.size++] = SHAPE;
+    this.calls[this.size++] = indexOf(name);
+    this.calls[this.size++] = indexOf(type);
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<RecordedChunk> addMotion(String name, int t1, int x1, int y1, int w1,
+                                                   int h1, int r1, int g1, int b1, int t2, int x2,
+                                                   int y2, int w2, int h2, int r2, int g2,
+                                                   int b2) {
+    ensureCapacity(18);
+    int[] c = this.calls;
+    int i = this.size;
+    c[i] = MOTION;
+    c[i + 1] = indexOf(name);
+    c[i + 2] = t1;
+    c[i + 3] = x1;
+    c[i + 4] = y1;
+    c[i + 5] = w1;
+    c[i + 6] = h1;
+    c[i + 7] = r1;
+    c[i + 8] = g1;
+    c[i + 9] = b1;
+    c[i + 10] = t2;
+    c[i + 11] = x2;
+    c[i + 12] = y2;
+    c[i + 13] = w2;
+    c[i + 14] = h2;
+    c[i + 15] = r2;
+    c[i + 16] = g2;
+    c[i + 17] = b2;
+    this.size = i + 18;
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<RecordedChunk> addKeyframe(String name, int t, int x, int y, int w,
+                                                     int h, int r, int g, int b) {
+    ensureCapacity(10);
+    int[] c = this.calls;
+    int i = this.size;
+    c[i] = KEYFRAME;
+    c[i + 1] = indexOf(name);
+    c[i + 2] = t;
+    c[i + 3] = x;
+    c[i + 4] = y;
+    c[i + 5] = w;
+    c[i + 6] = h;
+    c[i + 7] = r;
+    c[i + 8] = g;
+    c[i + 9] = b;
+    this.size = i + 10;
+    return this;
+  }
+}
@@ -1,16 +1,10 @@
 package cs3500.animator.view;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.Writer;
 
-import cs3500.animator.model.KeyMoment;
-import cs3500.animator.model.Oval;
 import cs3500.animator.model.ReadOnlyAnimationModel;
-import cs3500.animator.model.Rectangle;
-import cs3500.animator.model.Shape;
+import cs3500.animator.model.ReadOnlyShape;
 
 /**
  * This is an implementation of the ITextualView interface that produces the textual description of
@@ -38,17 +32,10 @@ public class SVGView implements ITextualView {
 
   @Override
   public void makeVisible() {
-    if (fileOutput == null) {
-      System.out.print(getView());
-    } else {
-      try {
-        File file = new File(fileOutput);
-        FileWriter fileWriter = new FileWriter(file);
-        fileWriter.write(getView());
-        fileWriter.close();
-      } catch (IOException ioe) {
-        System.out.print("An error occurred when writing the file.");
-      }
+    try (Writer writer = ViewOutput.openWriter(fileOutput)) {
+      writeView(writer);
+    } catch (IOException ioe) {
+      ViewOutput.reportFailure(fileOutput);
     }
   }
 
@@ -59,39 +46,44 @@ public class SVGView implements ITextualView {
       throw new IllegalArgumentException("View cannot be null");
     }
     StringBuilder stringBuilder = new StringBuilder();
+    try {
+      writeView(stringBuilder);
+    } catch (IOException ioe) {
+      throw new IllegalStateException(ioe.getMessage());
+    }
+    return stringBuilder.toString();
+  }
 
-    stringBuilder.append("<svg ");
-
-    stringBuilder.append(printCanvas());
+  @Override
+  public void writeView(Appendable out) throws IOException {
+    out.append("<svg ");
 
-    stringBuilder.append("xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\">\n");
+    out.append(printCanvas());
 
-    stringBuilder.append(printAllShapesAndTransformations());
+    out.append("xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\">\n");
 
-    stringBuilder.append("</svg>");
+    printAllShapesAndTransformations(out);
 
-    return stringBuilder.toString();
+    out.append("</svg>");
   }
 
   /**
-   * Prints all the shapes and transformation compliant with the SVG file format.
+   * Prints all the shapes and transformation compliant with the SVG file format, one shape at a
+   * time.
    *
-   * @return the textual representation compliant with the SVG file format of all shapes and its
-   *         animations.
+   * @param out the output to print to
+   * @throws IOException if the output cannot be written.
    */
-  private String printAllShapesAndTransformations() {
-    StringBuilder sb = new StringBuilder();
-    List<Shape> a = new ArrayList<Shape>(model.getShapesInModel());
-    for (Shape s : a) {
-      if (!s.getKeyMoments().isEmpty()) {
-        sb.append(printInitialShapeAttributes(s));
-        if (s.getKeyMoments().size() > 1) {
-          sb.append(printTransformations(s));
+  private void printAllShapesAndTransformations(Appendable out) throws IOException {
+    for (ReadOnlyShape c : model.getShapesInModel()) {
+      if (c.getKeyMomentCount() > 0) {
+        out.append(printInitialShapeAttributes(c));
+        if (c.getKeyMomentCount() > 1) {
+          out.append(printTransformations(c));
         }
-        sb.append(printEnding(s));
+        out.append(printEnding(c));
       }
     }
-    return sb.toString();
   }
 
   /**
@@ -100,13 +92,14 @@ public class SVGView implements ITextualView {
    * @param s the shape used to determine the closing tag
    * @return the closing tag depending on the type of shape.
    */
-  private String printEnding(Shape s) {
-    if (s instanceof Rectangle) {
-      return "</rect>\n";
-    } else if (s instanceof Oval) {
-      return "</ellipse>\n";
-    } else {
-      throw new IllegalArgumentException("");
+  private String printEnding(ReadOnlyShape s) {
+    switch (s.getType()) {
+      case RECTANGLE:
+        return "</rect>\n";
+      case ELLIPSE:
+        return "</ellipse>\n";
+      default:
+        throw new IllegalArgumentException("");
     }
   }
 
@@ -114,30 +107,27 @@ public class SVGView implements ITextualView {
    * Prints all the transformation that the shape experiences. It only prints the transformation of
    * attributes that has changed from the previous key moment.
    *
-   * @param s the shape we are printing the transformation from
+   * @param c the shape we are printing the transformation from
    * @return textual representation of all the transformation
    */
-  private String printTransformations(Shape s) {
+  private String printTransformations(ReadOnlyShape c) {
     StringBuilder sb = new StringBuilder();
-    List<KeyMoment> km = s.getKeyMoments();
-    for (int i = 0; i < km.size() - 1; i++) {
-      KeyMoment initial = km.get(i);
-      KeyMoment next = km.get(i + 1);
-      String initialColor = "rgb(" + initial.getColor().getR() + "," + initial.getColor().getG()
-              + "," + initial.getColor().getB() + ")";
-      String nextColor = "rgb(" + next.getColor().getR() + "," + next.getColor().getG() + ","
-              + next.getColor().getB() + ")";
-      double beginTick = (float) (initial.getTick() / this.tempo);
-      double duration = (float) next.getTick() / this.tempo - beginTick;
-      sb.append(attributeChanges(s, Attribute.X, initial.getPos().getX(), next.getPos().getX(),
-              beginTick, duration));
-      sb.append(attributeChanges(s, Attribute.Y, initial.getPos().getY(), next.getPos().getY(),
+    for (int i = 0; i < c.getKeyMomentCount() - 1; i++) {
+      int next = i + 1;
+      double beginTick = (float) (c.getTick(i) / this.tempo);
+      double duration = (float) c.getTick(next) / this.tempo - beginTick;
+      sb.append(attributeChanges(c, Attribute.X, c.getX(i), c.getX(next), beginTick, duration));
+      sb.append(attributeChanges(c, Attribute.Y, c.getY(i), c.getY(next), beginTick, duration));
+      sb.append(attributeChanges(c, Attribute.Width, c.getWidth(i), c.getWidth(next), beginTick,
+              duration));
+      sb.append(attributeChanges(c, Attribute.Height, c.getHeight(i), c.getHeight(next),
               beginTick, duration));
-      sb.append(attributeChanges(s, Attribute.Width, initial.getDimensions().getWidth(),
-              next.getDimensions().getWidth(), beginTick, duration));
-      sb.append(attributeChanges(s, Attribute.Height, initial.getDimensions().getHeight(),
-              next.getDimensions().getHeight(), beginTick, duration));
-      sb.append(attributeColorChanges(initialColor, nextColor, beginTick, duration));
+      if ((c.getR(i) != c.getR(next)) || (c.getG(i) != c.getG(next))
+              || (c.getB(i) != c.getB(next))) {
+        String initialColor = "rgb(" + c.getR(i) + "," + c.getG(i) + "," + c.getB(i) + ")";
+        String nextColor = "rgb(" + c.getR(next) + "," + c.getG(next) + "," + c.getB(next) + ")";
+        sb.append(attributeColorChanges(initialColor, nextColor, beginTick, duration));
+      }
     }
     return sb.toString();
   }
@@ -178,8 +168,8 @@ public class SVGView implements ITextualView {
    * @param duration  the duration before the transition
    * @return textual representation of each attribute change transformation
    */
-  private String attributeChanges(Shape s, Attribute attType, int att, int att1, double beginTick,
-                                  double duration) {
+  private String attributeChanges(ReadOnlyShape s, Attribute attType, int att, int att1,
+                                  double beginTick, double duration) {
     if (att != att1) {
       return "<animate attributeName=\"" + determineAttribute(attType, s)
               + "\" attributeType=\"XML\" "
@@ -201,35 +191,36 @@ public class SVGView implements ITextualView {
    * @param s       the shape we are printing the transformation from
    * @return textual representation of the attribute type being changed
    */
-  private String determineAttribute(Attribute attType, Shape s) {
-    if (s instanceof Rectangle) {
-      switch (attType) {
-        case X:
-          return "x";
-        case Y:
-          return "y";
-        case Width:
-          return "width";
-        case Height:
-          return "height";
-        default:
-          throw new IllegalArgumentException("no such attribute");
-      }
-    } else if (s instanceof Oval) {
-      switch (attType) {
-        case X:
-          return "cx";
-        case Y:
-          return "cy";
-        case Width:
-          return "rx";
-        case Height:
-          return "ry";
-        default:
-          throw new IllegalArgumentException("no such attribute");
-      }
-    } else {
-      throw new IllegalArgumentException("much be either oval or rectangle");
+  private String determineAttribute(Attribute attType, ReadOnlyShape s) {
+    switch (s.getType()) {
+      case RECTANGLE:
+        switch (attType) {
+          case X:
+            return "x";
+          case Y:
+            return "y";
+          case Width:
+            return "width";
+          case Height:
+            return "height";
+          default:
+            throw new IllegalArgumentException("no such attribute");
+        }
+      case ELLIPSE:
+        switch (attType) {
+          case X:
+            return "cx";
+          case Y:
+            return "cy";
+          case Width:
+            return "rx";
+          case Height:
+            return "ry";
+          default:
+            throw new IllegalArgumentException("no such attribute");
+        }
+      default:
+        throw new IllegalArgumentException("much be either oval or rectangle");
     }
   }
 
@@ -237,38 +228,31 @@ public class SVGView implements ITextualView {
    * Determines the textual representation of shape and its initial components (position, color and
    * dimensions).
    *
-   * @param s the shape we are printing the transformation from
+   * @param c the shape we are printing the transformation from
    * @return textual representation of shape and its initial components
    */
-  private String printInitialShapeAttributes(Shape s) {
+  private String printInitialShapeAttributes(ReadOnlyShape c) {
     StringBuilder sb = new StringBuilder();
-    KeyMoment initialKeyMoment = s.getKeyMoments().get(0);
-    int initialX = initialKeyMoment.getPos().getX();
-    int initialY = initialKeyMoment.getPos().getY();
-    int initialWidth = initialKeyMoment.getDimensions().getWidth();
-    int initialHeight = initialKeyMoment.getDimensions().getHeight();
-    int initialR = initialKeyMoment.getColor().getR();
-    int initialG = initialKeyMoment.getColor().getG();
-    int initialB = initialKeyMoment.getColor().getB();
-    if (s instanceof Rectangle) {
-      sb.append("<rect id=\"" + s.getName()
-              + "\" x=\"" + initialX
-              + "\" y=\"" + initialY
-              + "\" width=\"" + initialWidth
-              + "\" height=\"" + initialHeight
-              + "\" fill=\"rgb(" + initialR + "," + initialG + "," + initialB + ")"
-              + "\" visibility=\"visible\" " + ">\n");
-    } else if (s instanceof Oval) {
-      sb.append("<ellipse id=\"" + s.getName()
-              + "\" cx=\"" + initialX
-              + "\" cy=\"" + initialY
-              + "\" rx=\"" + initialWidth
-              + "\" ry=\"" + initialHeight
-              + "\" fill=\"rgb(" + initialR + "," + initialG + "," + initialB + ")"
-              + "\" visibility=\"visible\" " + ">\n");
-    } else {
-      throw new IllegalArgumentException("No such shape");
+    switch (c.getType()) {
+      case RECTANGLE:
+        sb.append("<rect id=\"" + c.getName()
+                + "\" x=\"" + c.getX(0)
+                + "\" y=\"" + c.getY(0)
+                + "\" width=\"" + c.getWidth(0)
+                + "\" height=\"" + c.getHeight(0));
+        break;
+      case ELLIPSE:
+        sb.append("<ellipse id=\"" + c.getName()
+                + "\" cx=\"" + c.getX(0)
+                + "\" cy=\"" + c.getY(0)
+                + "\" rx=\"" + c.getWidth(0)
+                + "\" ry=\"" + c.getHeight(0));
+        break;
+      default:
+        throw new IllegalArgumentException("No such shape");
     }
+    sb.append("\" fill=\"rgb(" + c.getR(0) + "," + c.getG(0) + "," + c.getB(0) + ")"
+            + "\" visibility=\"visible\" " + ">\n");
     return sb.toString();
   }
 
@@ -1,11 +1,10 @@
 package cs3500.animator.model;
 
-import java.util.List;
-
 /**
- * This interface specifies all the operation that is available for a shape.
+ * This interface specifies all the operation that is available for a shape, including the ones
+ * that change it.
  */
-public interface Shape {
+public interface Shape extends ReadOnlyShape {
 
   /**
    * Creates a copy of a 2D shape.
@@ -14,13 +13,6 @@ public interface Shape {
    */
   Shape createCopyShape();
 
-  /**
-   * Returns the name of the shape.
-   *
-   * @return a string representing the name of a shape.
-   */
-  String getName();
-
   /**
    * Adds an animation to the given shape.
    *
@@ -40,14 +32,6 @@ public interface Shape {
                          Color startColor, int endTick, Position2D endPosition,
                          Dimensions endDimensions, Color endColor);
 
-
-  /**
-   * Gets the list of key moments that the shape experiences.
-   *
-   * @return the list of key moments of the shape
-   */
-  List<KeyMoment> getKeyMoments();
-
   /**
    * Filters the shape to only include the key moments that are nearest to the given tick. If the
    * given tick is one of the tick of the key moments found in the shape, it will only return that
@@ -55,8 +39,10 @@ public interface Shape {
    * of the shape, it will return both the closest key moments.
    *
    * @param tick tick
-   * @return the shape with only the closest key moments to the given tick.
+   * @return the shape with only the closest key moments to the given tick, or null if the shape is
+   *         not found at the given tick.
    */
+  @Override
   Shape getKeyMomentsAtTick(int tick);
 
   /**
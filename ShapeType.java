@@ -0,0 +1,8 @@
+package cs3500.animator.model;
+
+/**
+ * Represents the types of shapes that can be used in an animation.
+ */
+public enum ShapeType {
+  RECTANGLE, ELLIPSE;
+}
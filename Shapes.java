@@ -0,0 +1,131 @@
+package cs3500.animator.model;
+
+import java.util.Objects;
+
+/**
+ * The checks and the equality shared by every implementation of shapes and by the values their key
+ * moments are made of, so they all accept the same key moments, report the same errors, and
+ * compare equal to each other when they describe the same shape.
+ */
+final class Shapes {
+
+  static final String NO_COMMON_ENDPOINT = "Do not have common endpoint.";
+  static final String NO_SUCH_KEY_MOMENT = "No such keymoment.";
+  static final String INCOMPLETE_KEYFRAME = "Must have position, dimensions and color";
+
+  private Shapes() {
+  }
+
+  /**
+   * Ensures the given width and height are those of valid dimensions.
+   *
+   * @param width  the width
+   * @param height the height
+   * @throws IllegalArgumentException if the width or height is zero or negative.
+   */
+  static void ensureValidDimensions(int width, int height) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Width and height must be positive.");
+    }
+  }
+
+  /**
+   * Ensures the given components are those of a valid color.
+   *
+   * @param r the r value in the RGB color model
+   * @param g the g value in the RGB color model
+   * @param b the b value in the RGB color model
+   * @throws IllegalArgumentException if either the r, g or b values exceed the range 0 - 255.
+   */
+  static void ensureValidColor(int r, int g, int b) {
+    if (((r | g | b) & ~0xFF) != 0) {
+      throw new IllegalArgumentException("RGB must be in between 0 and 255");
+    }
+  }
+
+  /**
+   * Ensures the given elements make a valid key moment.
+   *
+   * @param tick  the tick
+   * @param pos   the position
+   * @param dim   the dimensions
+   * @param color the color
+   * @throws IllegalArgumentException if any of the given elements are null values or if the tick
+   *                                  is negative.
+   */
+  static void ensureValidKeyMoment(int tick, Position2D pos, Dimensions dim, Color color) {
+    if (color == null || dim == null || pos == null) {
+      throw new IllegalArgumentException("Elements cannot be null.");
+    }
+    ensureValidTick(tick);
+  }
+
+  /**
+   * Ensures the given tick is one a key moment can have.
+   *
+   * @param tick the tick
+   * @throws IllegalArgumentException if the tick is negative.
+   */
+  static void ensureValidTick(int tick) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Tick must start at 0.");
+    }
+  }
+
+  /**
+   * Ensures that the end tick of a motion is not before its start tick so time is moving forward.
+   *
+   * @param startTick starting tick
+   * @param endTick   ending tick
+   * @throws IllegalArgumentException when the ending tick is smaller than the starting tick.
+   */
+  static void ensureEndTickNotBeforeStart(int startTick, int endTick) {
+    if (endTick < startTick) {
+      throw new IllegalArgumentException("End tick should be bigger than start tick");
+    }
+  }
+
+  /**
+   * Determines if the two shapes are the same, which is if they have the same name and type and the
+   * same key moments in the same order, whichever way they are stored.
+   *
+   * @param a a shape
+   * @param b the other shape
+   * @return true if the two shapes are the same.
+   */
+  static boolean equal(ReadOnlyShape a, ReadOnlyShape b) {
+    int count = a.getKeyMomentCount();
+    if (!a.getName().equals(b.getName()) || (a.getType() != b.getType())
+            || (count != b.getKeyMomentCount())) {
+      return false;
+    }
+    for (int i = 0; i < count; i++) {
+      if ((a.getTick(i) != b.getTick(i)) || (a.getX(i) != b.getX(i)) || (a.getY(i) != b.getY(i))
+              || (a.getWidth(i) != b.getWidth(i)) || (a.getHeight(i) != b.getHeight(i))
+              || (a.getR(i) != b.getR(i)) || (a.getG(i) != b.getG(i))
+              || (a.getB(i) != b.getB(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Computes a hash code of the given shape consistent with {@link #equal}.
+   *
+   * @param s the shape
+   * @return the hash code.
+   */
+  static int hash(ReadOnlyShape s) {
+    int hash = Objects.hash(s.getName(), s.getType());
+    for (int i = 0; i < s.getKeyMomentCount(); i++) {
+      hash = 31 * hash + s.getTick(i);
+      hash = 31 * hash + s.getX(i);
+      hash = 31 * hash + s.getY(i);
+      hash = 31 * hash + s.getWidth(i);
+      hash = 31 * hash + s.getHeight(i);
+      hash = 31 * hash + ((s.getR(i) << 16) | (s.getG(i) << 8) | s.getB(i));
+    }
+    return hash;
+  }
+}
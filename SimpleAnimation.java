@@ -1,10 +1,12 @@
 package cs3500.animator.model;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import cs3500.animator.util.AnimationBuilder;
 
 
@@ -19,88 +21,226 @@ public final class SimpleAnimation implements AnimationModel {
   private int canvasTop;
   private int canvasWidth;
   private int canvasHeight;
-  private List<Shape> listOfShape;
+  // shapes in the order they were added to the model, identified by their position
+  private List<Shape> shapes;
+  // positions of the shapes by name
+  private Map<String, Integer> ids;
+  // lifetimes of the shapes by position, updated as they change once it has been built
+  private TemporalIndex timeline;
+  // extent of the animation, recomputed on the next query after a change on its boundary
+  private Extent extent;
+  // number of changes made to the model
+  private long version;
 
   /**
    * Constructs a SimpleAnimation, initializing the simple animation to the default state whereby
    * the list of shape it contains is empty.
    */
   public SimpleAnimation() {
-    this.listOfShape = new ArrayList<Shape>();
+    this.shapes = new ArrayList<Shape>();
+    this.ids = new HashMap<String, Integer>();
   }
 
   /**
-   * Ensures the given list does not have duplicate shapes.
+   * Ensures no shape of the given name is already found in the model.
    *
-   * @param los list of shapes
-   * @throws IllegalArgumentException if the list has duplicate shapes, in terms of name.
+   * @param name name of the shape
+   * @throws IllegalArgumentException if the model already has a shape of the given name.
    */
-  private void ensureNoDuplicates(List<Shape> los) {
-    List<String> listOfShapeNames = getListOfNames(los);
-    Set<String> setOfShapeNames = new HashSet<String>(listOfShapeNames);
-    if (listOfShapeNames.size() > setOfShapeNames.size()) {
+  private void ensureNoDuplicates(String name) {
+    if (this.ids.containsKey(name)) {
       throw new IllegalArgumentException("No duplicates.");
     }
   }
 
+  @Override
+  public void addAnimation(String shapeToAnimate, int startTick, Position2D startPosition,
+                           Dimensions startDimensions, Color startColor, int endTick,
+                           Position2D endPosition, Dimensions endDimensions, Color endColor) {
+    int id = getId(shapeToAnimate);
+    Shape shape = this.shapes.get(id);
+    int firstTick = shape.getFirstTick();
+    int lastTick = shape.getLastTick();
+    int count = shape.getKeyMomentCount();
+    shape.addAnimationShape(startTick, startPosition, startDimensions, startColor, endTick,
+            endPosition, endDimensions, endColor);
+    updateTimeline(id, firstTick, lastTick);
+    // a motion that changes nothing is skipped by the shape, and must not grow the extent
+    if ((this.extent != null) && (shape.getKeyMomentCount() != count)) {
+      this.extent.include(startTick, startPosition, startDimensions);
+      this.extent.include(endTick, endPosition, endDimensions);
+    }
+    this.version++;
+  }
+
   /**
-   * Returns a list of string containing the names of the shapes in the given list.
+   * Discards the extent of the animation if the key moment of the given shape at the given tick,
+   * which is about to be removed or replaced, lies on its boundary, since the extent may then
+   * shrink. The extent stays as it is otherwise.
    *
-   * @param los list of shapes
-   * @return a list of string representing the names of the shapes in the given list.
+   * @param shape the shape
+   * @param tick  the tick of the key moment
    */
-  private List<String> getListOfNames(List<Shape> los) {
-    List<String> names = new ArrayList<>();
-    for (Shape s : los) {
-      names.add(s.getName());
+  private void updateExtent(ReadOnlyShape shape, int tick) {
+    int i = indexOfTick(shape, tick);
+    if ((this.extent != null) && (i >= 0) && this.extent.touches(tick, shape.getX(i),
+            shape.getY(i), shape.getWidth(i), shape.getHeight(i))) {
+      this.extent = null;
     }
-    return names;
   }
 
-  @Override
-  public void addAnimation(String shapeToAnimate, int startTick, Position2D startPosition,
-                           Dimensions startDimensions, Color startColor, int endTick,
-                           Position2D endPosition, Dimensions endDimensions, Color endColor) {
-    getThisShape(shapeToAnimate).addAnimationShape(startTick, startPosition, startDimensions,
-            startColor, endTick, endPosition, endDimensions, endColor);
+  /**
+   * Finds the index of the key moment of the given shape at this exact tick.
+   *
+   * @param shape the shape
+   * @param tick  the tick to look for
+   * @return the index of the key moment, or -1 if the shape has no key moment at that tick
+   */
+  private static int indexOfTick(ReadOnlyShape shape, int tick) {
+    int low = 0;
+    int high = shape.getKeyMomentCount() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int t = shape.getTick(mid);
+      if (t < tick) {
+        low = mid + 1;
+      } else if (t > tick) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the extent of the animation, computing it if needed.
+   *
+   * @return the extent of the animation.
+   */
+  private Extent getExtent() {
+    if (this.extent == null) {
+      this.extent = new Extent();
+      for (Shape s : this.shapes) {
+        this.extent.include(s);
+      }
+    }
+    return this.extent;
+  }
+
+  /**
+   * Updates the index of the lifetimes of the shapes, if it was built, when the lifetime of the
+   * given shape changed.
+   *
+   * @param id        the position of the shape that was changed or added
+   * @param firstTick the tick of the first key moment of the shape before the change
+   * @param lastTick  the tick of the last key moment of the shape before the change
+   */
+  private void updateTimeline(int id, int firstTick, int lastTick) {
+    Shape shape = this.shapes.get(id);
+    if ((this.timeline != null) && ((id == this.timeline.size())
+            || (shape.getFirstTick() != firstTick) || (shape.getLastTick() != lastTick))) {
+      this.timeline = this.timeline.withLifetime(id, shape.getFirstTick(), shape.getLastTick());
+    }
+  }
+
+  /**
+   * Returns the index of the lifetimes of the shapes found in the model, building it if needed.
+   *
+   * @return the index of the lifetimes of the shapes.
+   */
+  private TemporalIndex getTimeline() {
+    if (this.timeline == null) {
+      this.timeline = TemporalIndex.of(this.shapes.toArray(new Shape[0]));
+    }
+    return this.timeline;
   }
 
   /**
-   * Returns the shape of the given name found in the model.
+   * Returns the position of the shape of the given name found in the model.
    *
    * @param shapeToMove name of the shape
-   * @return Shape of the given name.
+   * @return the position of the shape of the given name.
    * @throws IllegalArgumentException if the shape is not found in the model using the given name.
    */
-  private Shape getThisShape(String shapeToMove) {
-    for (Shape shape : this.listOfShape) {
-      if (shape.getName().equals(shapeToMove)) {
-        return shape;
-      }
+  private int getId(String shapeToMove) {
+    Integer id = this.ids.get(shapeToMove);
+    if (id == null) {
+      throw new IllegalArgumentException("No such shape.");
     }
-    throw new IllegalArgumentException("No such shape.");
+    return id;
+  }
+
+  /**
+   * Appends a shape to the model, after the shapes already found in it.
+   *
+   * @param shape the shape, whose name is not yet found in the model
+   * @return the position of the shape.
+   */
+  private int put(Shape shape) {
+    int id = this.shapes.size();
+    this.shapes.add(shape);
+    this.ids.put(shape.getName(), id);
+    return id;
   }
 
   @Override
   public void addShape(Shape shapeToAdd) {
-    List<Shape> newList = new ArrayList<Shape>(this.listOfShape);
-    newList.add(shapeToAdd);
-    ensureNoDuplicates(newList);
-    this.listOfShape.add(shapeToAdd.createCopyShape());
+    ensureNoDuplicates(shapeToAdd.getName());
+    Shape copy = shapeToAdd.createCopyShape();
+    int id = put(copy);
+    updateTimeline(id, -1, -1);
+    if (this.extent != null) {
+      this.extent.include(copy);
+    }
+    this.version++;
   }
 
   @Override
-  public List<Shape> getShapesAtTick(int tick) {
-    List<Shape> los = new ArrayList<>();
-    for (Shape s : this.listOfShape) {
-      los.add(s.getKeyMomentsAtTick(tick));
+  public List<ReadOnlyShape> getShapesAtTick(int tick) {
+    IdList found = new IdList();
+    getTimeline().query(tick, found);
+    List<ReadOnlyShape> los = new ArrayList<>(found.size());
+    for (int i = 0; i < found.size(); i++) {
+      los.add(this.shapes.get(found.get(i)).getKeyMomentsAtTick(tick));
     }
     return los;
   }
 
   @Override
-  public List<Shape> getShapesInModel() {
-    List<Shape> newList = new ArrayList<Shape>(this.listOfShape);
+  public void sampleFrame(int tick, FrameBuffer out) {
+    out.clear();
+    getTimeline().query(tick, out.found);
+    for (int i = 0; i < out.found.size(); i++) {
+      int id = out.found.get(i);
+      out.setShapeId(id);
+      this.shapes.get(id).sampleInto(tick, out);
+    }
+  }
+
+  @Override
+  public int getFirstTick() {
+    return getExtent().getFirstTick();
+  }
+
+  @Override
+  public int getLastTick() {
+    return getExtent().getLastTick();
+  }
+
+  @Override
+  public int[] getBounds() {
+    return getExtent().getBounds();
+  }
+
+  @Override
+  public ReadOnlyAnimationModel snapshot() {
+    return CompiledAnimation.compile(this);
+  }
+
+  @Override
+  public List<ReadOnlyShape> getShapesInModel() {
+    List<ReadOnlyShape> newList = new ArrayList<ReadOnlyShape>(this.shapes);
     return newList;
   }
 
@@ -120,22 +260,59 @@ public final class SimpleAnimation implements AnimationModel {
     this.canvasTop = top;
     this.canvasWidth = width;
     this.canvasHeight = height;
+    this.version++;
   }
 
   @Override
   public void removeShape(String shapeToRemove) {
-    this.listOfShape.remove(getThisShape(shapeToRemove));
+    int id = getId(shapeToRemove);
+    if ((this.extent != null) && this.extent.touches(this.shapes.get(id))) {
+      this.extent = null;
+    }
+    this.shapes.remove(id);
+    this.ids.remove(shapeToRemove);
+    // the shapes after it move down one position, so the index is rebuilt on the next query
+    for (int i = id; i < this.shapes.size(); i++) {
+      this.ids.put(this.shapes.get(i).getName(), i);
+    }
+    this.timeline = null;
+    this.version++;
   }
 
   @Override
   public void removeAnimation(String shapeToRemove, int tickOfAnimationToRemove) {
-    getThisShape(shapeToRemove).removeKeyMomentAt(tickOfAnimationToRemove);
+    int id = getId(shapeToRemove);
+    Shape shape = this.shapes.get(id);
+    int firstTick = shape.getFirstTick();
+    int lastTick = shape.getLastTick();
+    updateExtent(shape, tickOfAnimationToRemove);
+    shape.removeKeyMomentAt(tickOfAnimationToRemove);
+    updateTimeline(id, firstTick, lastTick);
+    this.version++;
   }
 
   @Override
   public void addKeyframe(String shapeToAdd, int tick, Position2D pos, Dimensions dim,
                           Color color) {
-    getThisShape(shapeToAdd).addKeyframe(tick, pos, dim, color);
+    int id = getId(shapeToAdd);
+    Shape shape = this.shapes.get(id);
+    int firstTick = shape.getFirstTick();
+    int lastTick = shape.getLastTick();
+    // the keyframe may replace an existing one, which can shrink the extent
+    updateExtent(shape, tick);
+    shape.addKeyframe(tick, pos, dim, color);
+    updateTimeline(id, firstTick, lastTick);
+    if (this.extent != null) {
+      int i = indexOfTick(shape, tick);
+      this.extent.include(tick, shape.getX(i), shape.getY(i), shape.getWidth(i),
+              shape.getHeight(i));
+    }
+    this.version++;
+  }
+
+  @Override
+  public long getVersion() {
+    return this.version;
   }
 
   @Override
@@ -149,12 +326,12 @@ public final class SimpleAnimation implements AnimationModel {
 
     SimpleAnimation that = (SimpleAnimation) a;
 
-    return (this.listOfShape.equals(that.listOfShape));
+    return (getShapesInModel().equals(that.getShapesInModel()));
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(this.listOfShape);
+    return Objects.hash(getShapesInModel());
   }
 
   /**
@@ -174,6 +351,15 @@ public final class SimpleAnimation implements AnimationModel {
       model = new SimpleAnimation();
     }
 
+    /**
+     * Constructs a new Builder adding to the given model, such as a model already being viewed.
+     *
+     * @param model the model to add to
+     */
+    public Builder(AnimationModel model) {
+      this.model = Objects.requireNonNull(model);
+    }
+
     @Override
     public AnimationModel build() {
       return model;
@@ -188,9 +374,9 @@ public final class SimpleAnimation implements AnimationModel {
     @Override
     public AnimationBuilder<AnimationModel> declareShape(String name, String type) {
       if (type.equals("ellipse")) {
-        model.addShape(new Oval(name));
+        model.addShape(new PackedShape(name, ShapeType.ELLIPSE));
       } else if (type.equals("rectangle")) {
-        model.addShape(new Rectangle(name));
+        model.addShape(new PackedShape(name, ShapeType.RECTANGLE));
       } else {
         throw new IllegalArgumentException("No such shape allowed.");
       }
@@ -206,8 +392,8 @@ public final class SimpleAnimation implements AnimationModel {
       Position2D finalPos = new Position2D(x2, y2);
       Dimensions initialDimension = new Dimensions(w1, h1);
       Dimensions finalDimension = new Dimensions(w2, h2);
-      Color initialColor = new Color(r1, g1, b1);
-      Color finalColor = new Color(r2, g2, b2);
+      Color initialColor = Color.of(r1, g1, b1);
+      Color finalColor = Color.of(r2, g2, b2);
       model.addAnimation(name, t1, initialPos, initialDimension, initialColor, t2, finalPos,
               finalDimension, finalColor);
       return this;
@@ -216,9 +402,317 @@ public final class SimpleAnimation implements AnimationModel {
     @Override
     public AnimationBuilder<AnimationModel> addKeyframe(String name, int t, int x, int y, int w,
                                                         int h, int r, int g, int b) {
-      return null;
+      model.addKeyframe(name, t, new Position2D(x, y), new Dimensions(w, h), Color.of(r, g, b));
+      return this;
+    }
+
+  }
+
+  /**
+   * A builder for loading large animations. Instead of adding every motion to the model as it is
+   * read, it appends the raw numbers of the motion to a buffer for its shape, and only checks and
+   * adds them to the model when the animation is built: the motions of every shape are sorted by
+   * their starting tick, repeated and no-op motions are dropped, and the remaining motions are
+   * checked to have common endpoints, reporting the same errors as {@link Builder}. Keyframes are
+   * buffered the same way, with the number of motions read before them, and set as soon as those
+   * motions have been added, so a keyframe changes the motions read before it and the motions read
+   * after it must start from it, as with {@link Builder}. The shapes of the animation are
+   * {@link PackedShape}s.
+   */
+  public static final class BulkBuilder implements AnimationBuilder<AnimationModel> {
+
+    // numbers per motion: the tick, x, y, width, height, r, g and b at its start and end
+    private static final int MOTION = 16;
+    // numbers per keyframe: the tick, x, y, width, height, r, g and b, and the number of motions
+    // of its shape read before it
+    private static final int KEYFRAME = 9;
+
+    private final SimpleAnimation model;
+    private final Map<String, Staging> staged;
+
+    /**
+     * Constructs a new BulkBuilder with a new empty model.
+     */
+    public BulkBuilder() {
+      this.model = new SimpleAnimation();
+      this.staged = new LinkedHashMap<>();
+    }
+
+    @Override
+    public AnimationModel build() {
+      for (Map.Entry<String, Staging> entry : this.staged.entrySet()) {
+        Shape shape = entry.getValue().toShape(entry.getKey());
+        this.model.put(shape);
+      }
+      this.staged.clear();
+      this.model.timeline = null;
+      this.model.extent = null;
+      return this.model;
+    }
+
+    @Override
+    public AnimationBuilder<AnimationModel> setBounds(int x, int y, int width, int height) {
+      this.model.setCanvas(x, y, width, height);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<AnimationModel> declareShape(String name, String type) {
+      ShapeType shapeType;
+      if (type.equals("ellipse")) {
+        shapeType = ShapeType.ELLIPSE;
+      } else if (type.equals("rectangle")) {
+        shapeType = ShapeType.RECTANGLE;
+      } else {
+        throw new IllegalArgumentException("No such shape allowed.");
+      }
+      if (this.staged.containsKey(name) || this.model.ids.containsKey(name)) {
+        throw new IllegalArgumentException("No duplicates.");
+      }
+      this.staged.put(name, new Staging(shapeType));
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<AnimationModel> addMotion(String name, int t1, int x1, int y1, int w1,
+                                                      int h1, int r1, int g1, int b1, int t2,
+                                                      int x2, int y2, int w2, int h2, int r2,
+                                                      int g2, int b2) {
+      Staging staging = this.staged.get(name);
+      if (staging == null) {
+        throw new IllegalArgumentException("No such shape.");
+      }
+      staging.add(t1, x1, y1, w1, h1, r1, g1, b1, t2, x2, y2, w2, h2, r2, g2, b2);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<AnimationModel> addKeyframe(String name, int t, int x, int y, int w,
+                                                        int h, int r, int g, int b) {
+      Staging staging = this.staged.get(name);
+      if (staging == null) {
+        throw new IllegalArgumentException("No such shape.");
+      }
+      staging.addKeyframe(t, x, y, w, h, r, g, b);
+      return this;
     }
 
+    /**
+     * The motions of one shape that are yet to be added to the model.
+     */
+    private static final class Staging {
+      private final ShapeType type;
+      private int[] motions;
+      private int count;
+      private int[] keyframes;
+      private int keyframeCount;
+
+      private Staging(ShapeType type) {
+        this.type = type;
+        this.motions = new int[MOTION * 4];
+      }
+
+      /**
+       * Appends the numbers of a motion, as given to addMotion.
+       */
+      private void add(int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1, int t2,
+                       int x2, int y2, int w2, int h2, int r2, int g2, int b2) {
+        int m = this.count * MOTION;
+        if (m + MOTION > this.motions.length) {
+          this.motions = Arrays.copyOf(this.motions, this.motions.length * 2);
+        }
+        int[] v = this.motions;
+        v[m] = t1;
+        v[m + 1] = x1;
+        v[m + 2] = y1;
+        v[m + 3] = w1;
+        v[m + 4] = h1;
+        v[m + 5] = r1;
+        v[m + 6] = g1;
+        v[m + 7] = b1;
+        v[m + 8] = t2;
+        v[m + 9] = x2;
+        v[m + 10] = y2;
+        v[m + 11] = w2;
+        v[m + 12] = h2;
+        v[m + 13] = r2;
+        v[m + 14] = g2;
+        v[m + 15] = b2;
+        this.count++;
+      }
+
+      /**
+       * Appends the numbers of a keyframe, as given to addKeyframe.
+       */
+      private void addKeyframe(int t, int x, int y, int w, int h, int r, int g, int b) {
+        int k = this.keyframeCount * KEYFRAME;
+        if (this.keyframes == null) {
+          this.keyframes = new int[KEYFRAME * 4];
+        } else if (k + KEYFRAME > this.keyframes.length) {
+          this.keyframes = Arrays.copyOf(this.keyframes, this.keyframes.length * 2);
+        }
+        int[] v = this.keyframes;
+        v[k] = t;
+        v[k + 1] = x;
+        v[k + 2] = y;
+        v[k + 3] = w;
+        v[k + 4] = h;
+        v[k + 5] = r;
+        v[k + 6] = g;
+        v[k + 7] = b;
+        v[k + 8] = this.count;
+        this.keyframeCount++;
+      }
+
+      /**
+       * Checks the motions of the shape and turns them into a shape.
+       *
+       * @param name the name of the shape
+       * @return the shape with the key moments of its motions.
+       * @throws IllegalArgumentException if a motion or keyframe is invalid or a motion does not
+       *                                  start where the shape last ends.
+       */
+      private Shape toShape(String name) {
+        // order the motions by starting tick, keeping the order they were given in for ties
+        long[] order = new long[this.count];
+        for (int i = 0; i < this.count; i++) {
+          order[i] = ((long) this.motions[i * MOTION] << 32) | i;
+        }
+        Arrays.sort(order);
+        // the position of every motion, in the order they were read, among the sorted motions
+        int[] rank = new int[this.count];
+        for (int p = 0; p < this.count; p++) {
+          rank[(int) order[p]] = p;
+        }
+        PackedShape shape = new PackedShape(name, this.type, this.count + 1 + this.keyframeCount);
+        int[] v = this.keyframes;
+        int k = 0;
+        // the motions read so far, and how many sorted motions must be added before the next
+        // keyframe so every motion read before it is
+        int read = 0;
+        int due = 0;
+        int previous = -1;
+        for (int p = 0; p <= this.count; p++) {
+          for (; k < this.keyframeCount * KEYFRAME; k += KEYFRAME) {
+            for (; read < v[k + 8]; read++) {
+              due = Math.max(due, rank[read] + 1);
+            }
+            if (due > p) {
+              break;
+            }
+            ensureValidKeyframe(k);
+            shape.put(v[k], v[k + 1], v[k + 2], v[k + 3], v[k + 4],
+                    (v[k + 5] << 16) | (v[k + 6] << 8) | v[k + 7]);
+          }
+          if (p == this.count) {
+            break;
+          }
+          int m = (int) order[p] * MOTION;
+          int end = m + MOTION / 2;
+          ensureValidMotion(m);
+          if (isSameState(m, end) || ((previous >= 0) && isSameMotion(previous, m))) {
+            continue;
+          }
+          if (shape.getKeyMomentCount() == 0) {
+            insert(shape, 0, m);
+          } else if (!endsAt(shape, m)) {
+            throw new IllegalArgumentException(Shapes.NO_COMMON_ENDPOINT);
+          }
+          insert(shape, shape.getKeyMomentCount(), end);
+          previous = m;
+        }
+        this.motions = null;
+        this.keyframes = null;
+        return shape;
+      }
+
+      /**
+       * Determines if the last key moment of the given shape is the state at the given offset.
+       *
+       * @param shape the shape, which has key moments
+       * @param a     the offset of the state
+       * @return true if the shape ends in that state.
+       */
+      private boolean endsAt(PackedShape shape, int a) {
+        int[] v = this.motions;
+        int last = shape.getKeyMomentCount() - 1;
+        return (shape.getTick(last) == v[a]) && (shape.getX(last) == v[a + 1])
+                && (shape.getY(last) == v[a + 2]) && (shape.getWidth(last) == v[a + 3])
+                && (shape.getHeight(last) == v[a + 4]) && (shape.getR(last) == v[a + 5])
+                && (shape.getG(last) == v[a + 6]) && (shape.getB(last) == v[a + 7]);
+      }
+
+      /**
+       * Ensures the keyframe starting at the given offset is valid, reporting the same errors as
+       * the value objects and shapes that {@link Builder} creates.
+       *
+       * @param k the offset of the keyframe
+       * @throws IllegalArgumentException if the keyframe is invalid.
+       */
+      private void ensureValidKeyframe(int k) {
+        int[] v = this.keyframes;
+        Shapes.ensureValidDimensions(v[k + 3], v[k + 4]);
+        Shapes.ensureValidColor(v[k + 5], v[k + 6], v[k + 7]);
+        Shapes.ensureValidTick(v[k]);
+      }
+
+      /**
+       * Ensures the motion starting at the given offset is valid, reporting the same errors as the
+       * value objects and shapes that {@link Builder} creates.
+       *
+       * @param m the offset of the motion
+       * @throws IllegalArgumentException if the motion is invalid.
+       */
+      private void ensureValidMotion(int m) {
+        int[] v = this.motions;
+        Shapes.ensureValidDimensions(v[m + 3], v[m + 4]);
+        Shapes.ensureValidDimensions(v[m + 11], v[m + 12]);
+        Shapes.ensureValidColor(v[m + 5], v[m + 6], v[m + 7]);
+        Shapes.ensureValidColor(v[m + 13], v[m + 14], v[m + 15]);
+        Shapes.ensureEndTickNotBeforeStart(v[m], v[m + 8]);
+        Shapes.ensureValidTick(v[m]);
+      }
+
+      /**
+       * Determines if the two states, of eight numbers each, at the given offsets are the same.
+       *
+       * @param a the offset of a state
+       * @param b the offset of the other state
+       * @return true if the two states are the same.
+       */
+      private boolean isSameState(int a, int b) {
+        for (int i = 0; i < MOTION / 2; i++) {
+          if (this.motions[a + i] != this.motions[b + i]) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      /**
+       * Determines if the two motions at the given offsets are the same.
+       *
+       * @param a the offset of a motion
+       * @param b the offset of the other motion
+       * @return true if the two motions are the same.
+       */
+      private boolean isSameMotion(int a, int b) {
+        return isSameState(a, b) && isSameState(a + MOTION / 2, b + MOTION / 2);
+      }
+
+      /**
+       * Inserts the state at the given offset as a key moment of the given shape.
+       *
+       * @param shape the shape
+       * @param index the index of the new key moment
+       * @param a     the offset of the state
+       */
+      private void insert(PackedShape shape, int index, int a) {
+        int[] v = this.motions;
+        shape.insert(index, v[a], v[a + 1], v[a + 2], v[a + 3], v[a + 4],
+                (v[a + 5] << 16) | (v[a + 6] << 8) | v[a + 7]);
+      }
+    }
   }
 
 }
@@ -0,0 +1,308 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+
+/**
+ * An index over the lifetimes of the shapes of an animation, from the tick of their first key
+ * moment to the tick of their last key moment, to find the shapes found at a given tick without
+ * visiting the others. Shapes are known by an identifier from 0 up. It is a centered interval
+ * tree: every node holds the lifetimes overlapping its center tick, sorted by start and by end, so
+ * a query visits O(log N) nodes and then only the shapes found at the tick.
+ *
+ * <p>The index is immutable, so it can be queried from several threads at once and shared between
+ * versions of an animation. A lifetime is changed by deriving a new index that shares the tree
+ * with this one and keeps the changed lifetimes apart, in a short list every query also looks
+ * through. The tree is only rebuilt once that list grows past about the square root of the number
+ * of shapes, so a change costs O(sqrt N) amortized instead of a rebuild in O(N log N).</p>
+ *
+ * <p>Models outside this package that know the lifetimes of their shapes without holding the
+ * shapes, such as an animation read lazily from a file, can index them the same way.</p>
+ */
+public final class TemporalIndex {
+
+  // most changed lifetimes kept apart from the tree, on top of the square root of the shapes
+  private static final int CHANGES = 32;
+
+  // the lifetimes the tree was built from, by identifier, with a negative start for no lifetime
+  private final int[] start;
+  private final int[] end;
+  private final Node root;
+  // the lifetimes changed since the tree was built, by ascending identifier
+  private final int[] changedIds;
+  private final int[] changedStart;
+  private final int[] changedEnd;
+  // the number of identifiers
+  private final int size;
+
+  /**
+   * Constructs a TemporalIndex over the given lifetimes. The arrays are kept by the index and must
+   * not be changed afterwards.
+   *
+   * @param start the first tick of every shape, by identifier, or a negative tick for a shape that
+   *              is never found
+   * @param end   the last tick of every shape, by identifier
+   */
+  public TemporalIndex(int[] start, int[] end) {
+    this.start = start;
+    this.end = end;
+    this.size = start.length;
+    this.changedIds = new int[0];
+    this.changedStart = this.changedIds;
+    this.changedEnd = this.changedIds;
+    int[] ids = new int[start.length];
+    int count = 0;
+    for (int i = 0; i < start.length; i++) {
+      if (start[i] >= 0) {
+        ids[count++] = i;
+      }
+    }
+    this.root = build(Arrays.copyOf(ids, count));
+  }
+
+  /**
+   * Constructs a TemporalIndex sharing the tree of the given index, with the given changed
+   * lifetimes.
+   *
+   * @param base         the index whose tree is shared
+   * @param size         the number of identifiers
+   * @param changedIds   the identifiers of the changed lifetimes, in ascending order
+   * @param changedStart the first tick of every changed lifetime
+   * @param changedEnd   the last tick of every changed lifetime
+   */
+  private TemporalIndex(TemporalIndex base, int size, int[] changedIds, int[] changedStart,
+                        int[] changedEnd) {
+    this.start = base.start;
+    this.end = base.end;
+    this.root = base.root;
+    this.size = size;
+    this.changedIds = changedIds;
+    this.changedStart = changedStart;
+    this.changedEnd = changedEnd;
+  }
+
+  /**
+   * Constructs a TemporalIndex over the lifetimes of the given shapes, identified by their index
+   * in the array. Null entries and shapes with no key moments are never found.
+   *
+   * @param shapes the shapes to index, in the order they were added to the model
+   * @return the index.
+   */
+  static TemporalIndex of(ReadOnlyShape[] shapes) {
+    int[] start = new int[shapes.length];
+    int[] end = new int[shapes.length];
+    for (int i = 0; i < shapes.length; i++) {
+      start[i] = (shapes[i] == null) ? -1 : shapes[i].getFirstTick();
+      end[i] = (shapes[i] == null) ? -1 : shapes[i].getLastTick();
+    }
+    return new TemporalIndex(start, end);
+  }
+
+  /**
+   * Builds the subtree holding the lifetimes of the given shapes.
+   *
+   * @param ids the shapes in the subtree
+   * @return the root of the subtree, or null if there are no shapes
+   */
+  private Node build(int[] ids) {
+    if (ids.length == 0) {
+      return null;
+    }
+    // the median of all endpoints is overlapped by at least one lifetime, so every node holds
+    // at least one shape and both halves shrink
+    int[] endpoints = new int[ids.length * 2];
+    for (int i = 0; i < ids.length; i++) {
+      endpoints[2 * i] = this.start[ids[i]];
+      endpoints[2 * i + 1] = this.end[ids[i]];
+    }
+    Arrays.sort(endpoints);
+    int center = endpoints[ids.length];
+
+    int[] left = new int[ids.length];
+    int[] right = new int[ids.length];
+    long[] byStart = new long[ids.length];
+    long[] byEnd = new long[ids.length];
+    int leftCount = 0;
+    int rightCount = 0;
+    int midCount = 0;
+    for (int id : ids) {
+      if (this.end[id] < center) {
+        left[leftCount++] = id;
+      } else if (this.start[id] > center) {
+        right[rightCount++] = id;
+      } else {
+        byStart[midCount] = ((long) this.start[id] << 32) | id;
+        byEnd[midCount] = ((long) (Integer.MAX_VALUE - this.end[id]) << 32) | id;
+        midCount++;
+      }
+    }
+    Arrays.sort(byStart, 0, midCount);
+    Arrays.sort(byEnd, 0, midCount);
+    Node node = new Node(center, midCount);
+    for (int i = 0; i < midCount; i++) {
+      node.byStart[i] = (int) byStart[i];
+      node.byEnd[i] = (int) byEnd[i];
+    }
+    node.left = build(Arrays.copyOf(left, leftCount));
+    node.right = build(Arrays.copyOf(right, rightCount));
+    return node;
+  }
+
+  /**
+   * Gets the number of identifiers of the index, which is one more than the largest identifier.
+   *
+   * @return the number of identifiers.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Derives an index in which the shape of the given identifier has the given lifetime, sharing
+   * as much as it can with this index. The identifier may be the next one, to add a shape.
+   *
+   * @param id    the identifier of the shape, up to the number of identifiers
+   * @param first the first tick of the shape, or a negative tick if the shape is never found,
+   *              such as a shape that was removed
+   * @param last  the last tick of the shape
+   * @return the index with the given lifetime.
+   * @throws IllegalArgumentException if the identifier is out of range.
+   */
+  TemporalIndex withLifetime(int id, int first, int last) {
+    if ((id < 0) || (id > this.size)) {
+      throw new IllegalArgumentException("No such shape.");
+    }
+    int size = Math.max(this.size, id + 1);
+    int i = Arrays.binarySearch(this.changedIds, id);
+    int count = this.changedIds.length;
+    int[] ids;
+    int[] starts;
+    int[] ends;
+    if (i >= 0) {
+      ids = this.changedIds;
+      starts = this.changedStart.clone();
+      ends = this.changedEnd.clone();
+    } else {
+      i = -(i + 1);
+      ids = insert(this.changedIds, i, id);
+      starts = insert(this.changedStart, i, first);
+      ends = insert(this.changedEnd, i, last);
+      count++;
+    }
+    starts[i] = first;
+    ends[i] = last;
+    if (count > CHANGES + (int) Math.sqrt(size)) {
+      return rebuild(size, ids, starts, ends);
+    }
+    return new TemporalIndex(this, size, ids, starts, ends);
+  }
+
+  /**
+   * Copies the given array with a value inserted at the given position.
+   *
+   * @param array the array
+   * @param index the position
+   * @param value the value
+   * @return the longer copy.
+   */
+  private static int[] insert(int[] array, int index, int value) {
+    int[] copy = new int[array.length + 1];
+    System.arraycopy(array, 0, copy, 0, index);
+    copy[index] = value;
+    System.arraycopy(array, index, copy, index + 1, array.length - index);
+    return copy;
+  }
+
+  /**
+   * Builds a new tree from the lifetimes of this tree and the given changed lifetimes.
+   *
+   * @param size   the number of identifiers
+   * @param ids    the identifiers of the changed lifetimes
+   * @param starts the first tick of every changed lifetime
+   * @param ends   the last tick of every changed lifetime
+   * @return the rebuilt index.
+   */
+  private TemporalIndex rebuild(int size, int[] ids, int[] starts, int[] ends) {
+    int[] start = Arrays.copyOf(this.start, size);
+    int[] end = Arrays.copyOf(this.end, size);
+    Arrays.fill(start, this.start.length, size, -1);
+    for (int i = 0; i < ids.length; i++) {
+      start[ids[i]] = starts[i];
+      end[ids[i]] = ends[i];
+    }
+    return new TemporalIndex(start, end);
+  }
+
+  /**
+   * Finds the shapes whose lifetime covers the given tick, in ascending order of their
+   * identifiers.
+   *
+   * @param tick  the tick
+   * @param found the list to put the identifiers of the shapes found into, replacing its contents
+   */
+  public void query(int tick, IdList found) {
+    found.clear();
+    Node node = this.root;
+    while (node != null) {
+      if (tick < node.center) {
+        for (int id : node.byStart) {
+          if (this.start[id] > tick) {
+            break;
+          }
+          addUnchanged(id, found);
+        }
+        node = node.left;
+      } else if (tick > node.center) {
+        for (int id : node.byEnd) {
+          if (this.end[id] < tick) {
+            break;
+          }
+          addUnchanged(id, found);
+        }
+        node = node.right;
+      } else {
+        for (int id : node.byStart) {
+          addUnchanged(id, found);
+        }
+        node = null;
+      }
+    }
+    for (int i = 0; i < this.changedIds.length; i++) {
+      if ((this.changedStart[i] >= 0) && (this.changedStart[i] <= tick)
+              && (tick <= this.changedEnd[i])) {
+        found.add(this.changedIds[i]);
+      }
+    }
+    found.sort();
+  }
+
+  /**
+   * Adds a shape found in the tree to the given list, unless its lifetime changed since.
+   *
+   * @param id    the identifier of the shape
+   * @param found the list of shapes found
+   */
+  private void addUnchanged(int id, IdList found) {
+    if ((this.changedIds.length == 0) || (Arrays.binarySearch(this.changedIds, id) < 0)) {
+      found.add(id);
+    }
+  }
+
+  /**
+   * A node of the interval tree, holding the shapes whose lifetime overlaps its center tick.
+   */
+  private static final class Node {
+    private final int center;
+    // shapes by ascending start tick
+    private final int[] byStart;
+    // the same shapes by descending end tick
+    private final int[] byEnd;
+    private Node left;
+    private Node right;
+
+    private Node(int center, int size) {
+      this.center = center;
+      this.byStart = new int[size];
+      this.byEnd = new int[size];
+    }
+  }
+}
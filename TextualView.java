@@ -1,16 +1,10 @@
 package cs3500.animator.view;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.Writer;
 
-import cs3500.animator.model.KeyMoment;
-import cs3500.animator.model.Oval;
 import cs3500.animator.model.ReadOnlyAnimationModel;
-import cs3500.animator.model.Rectangle;
-import cs3500.animator.model.Shape;
+import cs3500.animator.model.ReadOnlyShape;
 
 /**
  * This is an implementation of the ITextualView interface that produces the textual
@@ -20,6 +14,7 @@ public class TextualView implements ITextualView {
 
   ReadOnlyAnimationModel model;
   String fileOutput;
+  boolean compact;
 
   /**
    * Constructs an TextualView.
@@ -28,23 +23,29 @@ public class TextualView implements ITextualView {
    * @param fileOutput name of the file to output to
    */
   public TextualView(ReadOnlyAnimationModel model, String fileOutput) {
+    this(model, fileOutput, false);
+  }
+
+  /**
+   * Constructs an TextualView, which describes every shape either by the motions between its key
+   * moments, or in compact mode by its key moments as keyframes, each written only once.
+   *
+   * @param model      the read only model
+   * @param fileOutput name of the file to output to
+   * @param compact    whether to write keyframes rather than motions
+   */
+  public TextualView(ReadOnlyAnimationModel model, String fileOutput, boolean compact) {
     this.model = model;
     this.fileOutput = fileOutput;
+    this.compact = compact;
   }
 
   @Override
   public void makeVisible() {
-    if (fileOutput == null) {
-      System.out.print(getView());
-    } else {
-      try {
-        File file = new File(fileOutput);
-        FileWriter fileWriter = new FileWriter(file);
-        fileWriter.write(getView());
-        fileWriter.close();
-      } catch (IOException ioe) {
-        System.out.print("An error occurred when writing the file.");
-      }
+    try (Writer writer = ViewOutput.openWriter(fileOutput)) {
+      writeView(writer);
+    } catch (IOException ioe) {
+      ViewOutput.reportFailure(fileOutput);
     }
   }
 
@@ -52,64 +53,76 @@ public class TextualView implements ITextualView {
   @Override
   public String getView() {
     StringBuilder sb = new StringBuilder();
-    sb.append(printCanvas());
-    List<Shape> a = new ArrayList<Shape>(model.getShapesInModel());
-    for (Shape s : a) {
-      sb.append("shape " + s.getName() + " " + getShapeType(s));
-      if (!s.getKeyMoments().isEmpty()) {
-        sb.append(printKeyMoments(s.getKeyMoments(), s.getName()));
-      }
+    try {
+      writeView(sb);
+    } catch (IOException ioe) {
+      throw new IllegalStateException(ioe.getMessage());
     }
     return sb.toString();
   }
 
+  @Override
+  public void writeView(Appendable out) throws IOException {
+    out.append(printCanvas());
+    // every shape is printed into the same builder, then written out
+    StringBuilder sb = new StringBuilder();
+    for (ReadOnlyShape c : model.getShapesInModel()) {
+      sb.setLength(0);
+      sb.append("shape " + c.getName() + " " + getShapeType(c));
+      if (compact) {
+        printKeyframes(sb, c);
+      } else if (c.getKeyMomentCount() > 0) {
+        printKeyMoments(sb, c);
+      }
+      out.append(sb);
+    }
+  }
+
   /**
-   * Prints every key moments in the list of key moments into its textual representation.
+   * Prints every key moments of a shape into its textual representation.
    *
-   * @param keyMoments the list of key moments of a shape
-   * @param name       the name of the shape
-   * @return textual representation of every key moment a shape experiences.
+   * @param sb the builder to print into
+   * @param c  the shape
    */
-  private String printKeyMoments(List<KeyMoment> keyMoments, String name) {
-    StringBuilder sb = new StringBuilder();
-    for (int i = 0; i < keyMoments.size() - 1; i++) {
-      KeyMoment initial = keyMoments.get(i);
-      int initialTick = initial.getTick();
-      int initialPosX = initial.getPos().getX();
-      int initialPosY = initial.getPos().getY();
-      int initialWidth = initial.getDimensions().getWidth();
-      int initialHeight = initial.getDimensions().getHeight();
-      int initialR = initial.getColor().getR();
-      int initialG = initial.getColor().getG();
-      int initialB = initial.getColor().getB();
-      KeyMoment next = keyMoments.get(i + 1);
-      int nextTick = next.getTick();
-      int nextPosX = next.getPos().getX();
-      int nextPosY = next.getPos().getY();
-      int nextWidth = next.getDimensions().getWidth();
-      int nextHeight = next.getDimensions().getHeight();
-      int nextR = next.getColor().getR();
-      int nextG = next.getColor().getG();
-      int nextB = next.getColor().getB();
-      sb.append("motion " + name + " "
-              + initialTick + " "
-              + initialPosX + " "
-              + initialPosY + " "
-              + initialWidth + " "
-              + initialHeight + " "
-              + initialR + " "
-              + initialG + " "
-              + initialB + " "
-              + nextTick + " "
-              + nextPosX + " "
-              + nextPosY + " "
-              + nextWidth + " "
-              + nextHeight + " "
-              + nextR + " "
-              + nextG + " "
-              + nextB + "\n");
+  private void printKeyMoments(StringBuilder sb, ReadOnlyShape c) {
+    for (int i = 0; i < c.getKeyMomentCount() - 1; i++) {
+      sb.append("motion ").append(c.getName());
+      printKeyMoment(sb, c, i);
+      printKeyMoment(sb, c, i + 1);
+      sb.append('\n');
     }
-    return sb.toString();
+  }
+
+  /**
+   * Prints every key moment of a shape as a keyframe into its textual representation.
+   *
+   * @param sb the builder to print into
+   * @param c  the shape
+   */
+  private void printKeyframes(StringBuilder sb, ReadOnlyShape c) {
+    for (int i = 0; i < c.getKeyMomentCount(); i++) {
+      sb.append("keyframe ").append(c.getName());
+      printKeyMoment(sb, c, i);
+      sb.append('\n');
+    }
+  }
+
+  /**
+   * Prints the tick, position, dimensions and color of a key moment of a shape.
+   *
+   * @param sb the builder to print into
+   * @param c  the shape
+   * @param i  the index of the key moment
+   */
+  private void printKeyMoment(StringBuilder sb, ReadOnlyShape c, int i) {
+    sb.append(' ').append(c.getTick(i))
+            .append(' ').append(c.getX(i))
+            .append(' ').append(c.getY(i))
+            .append(' ').append(c.getWidth(i))
+            .append(' ').append(c.getHeight(i))
+            .append(' ').append(c.getR(i))
+            .append(' ').append(c.getG(i))
+            .append(' ').append(c.getB(i));
   }
 
   /**
@@ -119,13 +132,14 @@ public class TextualView implements ITextualView {
    * @return textual representation of the given shape.
    * @throws IllegalArgumentException if there is no such shape.
    */
-  private String getShapeType(Shape s) {
-    if (s instanceof Rectangle) {
-      return "rectangle\n";
-    } else if (s instanceof Oval) {
-      return "ellipse\n";
-    } else {
-      throw new IllegalArgumentException("No such shape");
+  private String getShapeType(ReadOnlyShape s) {
+    switch (s.getType()) {
+      case RECTANGLE:
+        return "rectangle\n";
+      case ELLIPSE:
+        return "ellipse\n";
+      default:
+        throw new IllegalArgumentException("No such shape");
     }
   }
 
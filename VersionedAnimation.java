@@ -0,0 +1,187 @@
+package cs3500.animator.model;
+
+import java.util.List;
+
+/**
+ * Represents an animation model that can be edited while other threads read it. The current
+ * state of the model is always an immutable {@link CompiledAnimation}, and every change publishes
+ * a new one atomically, sharing every shape the change did not touch with the previous one.
+ * Readers take the current state with {@link #snapshot()} without locking and keep reading it for
+ * as long as they like, while changes are made one at a time.
+ *
+ * <p>Many changes can also be published at once, which is much cheaper when a shape is changed
+ * again and again, as when an animation is read into the model while it is viewed. Between
+ * {@link #beginBatch()} and {@link #endBatch()} changes are held back, and are only seen by
+ * readers once {@link #publishBatch()} or {@link #endBatch()} is called.</p>
+ */
+public final class VersionedAnimation implements AnimationModel {
+
+  private volatile CompiledAnimation current;
+  // changes held back until they are published, or null if every change is published at once
+  private CompiledAnimation.Editor batch;
+
+  /**
+   * Constructs a VersionedAnimation starting from the current state of the given model.
+   *
+   * @param model the model to start from
+   */
+  public VersionedAnimation(ReadOnlyAnimationModel model) {
+    this.current = CompiledAnimation.compile(model);
+  }
+
+  /**
+   * Constructs an empty VersionedAnimation.
+   */
+  public VersionedAnimation() {
+    this(new SimpleAnimation());
+  }
+
+  /**
+   * Gets the version of the current state of the model, which increases with every change
+   * published.
+   *
+   * @return the version of the current state of the model.
+   */
+  @Override
+  public long getVersion() {
+    return this.current.getVersion();
+  }
+
+  @Override
+  public ReadOnlyAnimationModel snapshot() {
+    return this.current;
+  }
+
+  /**
+   * Holds back the changes made from now on, until they are published. Does nothing if changes
+   * are already held back.
+   */
+  public synchronized void beginBatch() {
+    if (this.batch == null) {
+      this.batch = this.current.edit();
+    }
+  }
+
+  /**
+   * Publishes the changes held back so far as one new state of the model, and goes on holding
+   * back the changes made after them.
+   */
+  public synchronized void publishBatch() {
+    if (this.batch != null) {
+      this.current = this.batch.build();
+      this.batch = this.current.edit();
+    }
+  }
+
+  /**
+   * Publishes the changes held back so far, and publishes every change made from now on at once.
+   */
+  public synchronized void endBatch() {
+    if (this.batch != null) {
+      this.current = this.batch.build();
+      this.batch = null;
+    }
+  }
+
+  /**
+   * Gets the editor to make a change with, which is the one holding back changes if any.
+   *
+   * @return the editor.
+   */
+  private CompiledAnimation.Editor editor() {
+    return (this.batch != null) ? this.batch : this.current.edit();
+  }
+
+  /**
+   * Publishes the change made with the given editor, unless changes are held back.
+   *
+   * @param editor the editor the change was made with
+   */
+  private void publish(CompiledAnimation.Editor editor) {
+    if (this.batch == null) {
+      this.current = editor.build();
+    }
+  }
+
+  @Override
+  public synchronized void addAnimation(String shapeToAnimate, int startTick,
+                                        Position2D startPosition, Dimensions startDimensions,
+                                        Color startColor, int endTick, Position2D endPosition,
+                                        Dimensions endDimensions, Color endColor) {
+    CompiledAnimation.Editor editor = editor();
+    editor.getShape(shapeToAnimate).addAnimationShape(startTick, startPosition,
+            startDimensions, startColor, endTick, endPosition, endDimensions, endColor);
+    publish(editor);
+  }
+
+  @Override
+  public synchronized void addShape(Shape shapeToAdd) {
+    CompiledAnimation.Editor editor = editor();
+    editor.addShape(CompiledShape.of(shapeToAdd));
+    publish(editor);
+  }
+
+  @Override
+  public synchronized void setCanvas(int left, int top, int width, int height) {
+    CompiledAnimation.Editor editor = editor();
+    editor.setCanvas(new int[]{left, top, width, height});
+    publish(editor);
+  }
+
+  @Override
+  public synchronized void removeShape(String shapeToRemove) {
+    CompiledAnimation.Editor editor = editor();
+    editor.removeShape(shapeToRemove);
+    publish(editor);
+  }
+
+  @Override
+  public synchronized void removeAnimation(String shapeToRemove, int tickOfAnimationToRemove) {
+    CompiledAnimation.Editor editor = editor();
+    editor.getShape(shapeToRemove).removeKeyMomentAt(tickOfAnimationToRemove);
+    publish(editor);
+  }
+
+  @Override
+  public synchronized void addKeyframe(String shapeToAdd, int tick, Position2D pos,
+                                       Dimensions dim, Color color) {
+    CompiledAnimation.Editor editor = editor();
+    editor.getShape(shapeToAdd).addKeyframe(tick, pos, dim, color);
+    publish(editor);
+  }
+
+  @Override
+  public List<ReadOnlyShape> getShapesInModel() {
+    return this.current.getShapesInModel();
+  }
+
+  @Override
+  public int[] getCanvasDimensions() {
+    return this.current.getCanvasDimensions();
+  }
+
+  @Override
+  public List<ReadOnlyShape> getShapesAtTick(int tick) {
+    return this.current.getShapesAtTick(tick);
+  }
+
+  @Override
+  public void sampleFrame(int tick, FrameBuffer out) {
+    this.current.sampleFrame(tick, out);
+  }
+
+  @Override
+  public int getFirstTick() {
+    return this.current.getFirstTick();
+  }
+
+  @Override
+  public int getLastTick() {
+    return this.current.getLastTick();
+  }
+
+  @Override
+  public int[] getBounds() {
+    return this.current.getBounds();
+  }
+}
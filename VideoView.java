@@ -0,0 +1,190 @@
+package cs3500.animator.view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cs3500.animator.model.FrameBuffer;
+import cs3500.animator.model.ReadOnlyAnimationModel;
+
+/**
+ * This is an implementation of the AnimationView interface that writes the animation as an
+ * uncompressed video stream, one frame per tick from tick 0 to the last tick, to be piped into a
+ * video encoder. The stream is either YUV4MPEG2, with a header giving the size of the canvas and
+ * the tempo as the frame rate and every frame in full resolution YCbCr (4:4:4), or raw RGB, with
+ * three bytes per pixel and nothing else. Frames are drawn offscreen by the same rules as the
+ * visual views, on a thread of their own, so the next frame is drawn while the last one is being
+ * written.
+ */
+public class VideoView implements AnimationView {
+
+  // frames drawn ahead of the one being written
+  private static final int AHEAD = 2;
+  // handed over by the drawing thread once it has no more frames
+  private static final byte[] END = new byte[0];
+
+  private final ReadOnlyAnimationModel model;
+  private final String fileOutput;
+  private final int ticksPerSecond;
+  private final boolean y4m;
+
+  /**
+   * Constructs a VideoView.
+   *
+   * @param model          the read only model
+   * @param fileOutput     name of the file to output to
+   * @param ticksPerSecond the tempo of the animation, which is the frame rate of the video
+   * @param y4m            true to write YUV4MPEG2, false to write raw RGB
+   */
+  public VideoView(ReadOnlyAnimationModel model, String fileOutput, int ticksPerSecond,
+                   boolean y4m) {
+    this.model = model;
+    this.fileOutput = fileOutput;
+    this.ticksPerSecond = ticksPerSecond;
+    this.y4m = y4m;
+  }
+
+  @Override
+  public void makeVisible() {
+    try (OutputStream out = ViewOutput.open(fileOutput)) {
+      write(out);
+    } catch (IOException ioe) {
+      ViewOutput.reportFailure(fileOutput);
+    }
+  }
+
+  /**
+   * Writes every frame of the animation to the given stream.
+   *
+   * @param out the stream to write to
+   * @throws IOException if the stream cannot be written.
+   */
+  public void write(OutputStream out) throws IOException {
+    // a snapshot can be drawn on another thread while the model changes
+    ReadOnlyAnimationModel snapshot = model.snapshot();
+    int[] canvas = snapshot.getCanvasDimensions();
+    int width = Math.max(1, canvas[2]);
+    int height = Math.max(1, canvas[3]);
+    if (y4m) {
+      out.write(String.format("YUV4MPEG2 W%d H%d F%d:1 Ip A1:1 C444\n", width, height,
+              ticksPerSecond).getBytes(StandardCharsets.US_ASCII));
+    }
+    BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(AHEAD + 1);
+    BlockingQueue<byte[]> drawn = new ArrayBlockingQueue<>(AHEAD + 1);
+    for (int i = 0; i < AHEAD; i++) {
+      free.add(new byte[3 * width * height]);
+    }
+    ExecutorService drawer = Executors.newSingleThreadExecutor();
+    Future<Void> drawing = drawer.submit(() -> {
+      try {
+        draw(snapshot, width, height, free, drawn);
+      } finally {
+        // there is always room, since there are fewer buffers than places in the queue
+        drawn.add(END);
+      }
+      return null;
+    });
+    byte[] header = "FRAME\n".getBytes(StandardCharsets.US_ASCII);
+    try {
+      for (byte[] frame = drawn.take(); frame != END; frame = drawn.take()) {
+        if (y4m) {
+          out.write(header);
+        }
+        out.write(frame);
+        free.add(frame);
+      }
+      drawing.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while writing the frames");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      drawer.shutdownNow();
+    }
+    out.flush();
+  }
+
+  /**
+   * Draws every frame into a free buffer and hands it over to be written, one after the other.
+   *
+   * @param snapshot the animation
+   * @param width    the width of the frames
+   * @param height   the height of the frames
+   * @param free     the buffers that can be drawn into
+   * @param drawn    the buffers drawn, in order
+   * @throws InterruptedException if writing stopped.
+   */
+  private void draw(ReadOnlyAnimationModel snapshot, int width, int height,
+                    BlockingQueue<byte[]> free, BlockingQueue<byte[]> drawn)
+          throws InterruptedException {
+    int[] canvas = snapshot.getCanvasDimensions();
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    FrameBuffer frame = new FrameBuffer();
+    FrameRenderer renderer = new FrameRenderer();
+    int lastTick = snapshot.getLastTick();
+    for (int tick = 0; tick <= lastTick; tick++) {
+      snapshot.sampleFrame(tick, frame);
+      Graphics2D g2d = image.createGraphics();
+      g2d.setColor(Color.WHITE);
+      g2d.fillRect(0, 0, width, height);
+      renderer.draw(g2d, frame, canvas);
+      g2d.dispose();
+      byte[] bytes = free.take();
+      if (y4m) {
+        toYCbCr(pixels, bytes);
+      } else {
+        toRGB(pixels, bytes);
+      }
+      drawn.put(bytes);
+    }
+  }
+
+  /**
+   * Converts pixels to three bytes each, red, green and blue.
+   *
+   * @param pixels the pixels, packed as 0xRRGGBB
+   * @param bytes  the bytes to write into
+   */
+  private static void toRGB(int[] pixels, byte[] bytes) {
+    for (int i = 0, j = 0; i < pixels.length; i++, j += 3) {
+      int p = pixels[i];
+      bytes[j] = (byte) (p >> 16);
+      bytes[j + 1] = (byte) (p >> 8);
+      bytes[j + 2] = (byte) p;
+    }
+  }
+
+  /**
+   * Converts pixels to the Y, Cb and Cr planes of YUV4MPEG2, in the studio range of BT.601.
+   *
+   * @param pixels the pixels, packed as 0xRRGGBB
+   * @param bytes  the bytes to write into, one plane after the other
+   */
+  private static void toYCbCr(int[] pixels, byte[] bytes) {
+    int n = pixels.length;
+    for (int i = 0; i < n; i++) {
+      int p = pixels[i];
+      int r = (p >> 16) & 0xFF;
+      int g = (p >> 8) & 0xFF;
+      int b = p & 0xFF;
+      bytes[i] = (byte) (((66 * r + 129 * g + 25 * b + 128) >> 8) + 16);
+      bytes[n + i] = (byte) (((-38 * r - 74 * g + 112 * b + 128) >> 8) + 128);
+      bytes[2 * n + i] = (byte) (((112 * r - 94 * g - 18 * b + 128) >> 8) + 128);
+    }
+  }
+}
@@ -1,6 +1,9 @@
 package cs3500.animator.view;
 
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.CompiledAnimation;
 import cs3500.animator.model.ReadOnlyAnimationModel;
+import cs3500.animator.model.VersionedAnimation;
 
 
 /**
@@ -9,8 +12,13 @@ import cs3500.animator.model.ReadOnlyAnimationModel;
 public class ViewCreator {
 
   /**
-   * Creates an instance of the view according to the given string which can either be "svg", "text"
-   * or "visual".
+   * Creates an instance of the view according to the given string which can either be "svg",
+   * "text", "compact", "binary", "frames", "y4m", "rgb", "visual" or "edit". The compact view is
+   * the text view written with keyframes, and the frames view writes every tick as a PNG image into
+   * the directory given as output. The y4m and rgb views write every tick as a frame of a
+   * YUV4MPEG2 or raw RGB video at the tempo, to be piped into an encoder. The visual view plays a
+   * compiled copy of a model that can be changed, since it never changes it, and plays any other
+   * model as it is, including a versioned model that may be changed while it plays.
    *
    * @return an AnimationView
    */
@@ -21,7 +29,19 @@ public class ViewCreator {
     } else if (viewType.equalsIgnoreCase("text")) {
       return new TextualView(m, fileOutput);
     } else if (viewType.equalsIgnoreCase("visual")) {
-      return new AnimationGraphicsView(m, ticksPerSecond);
+      return new AnimationGraphicsView((m instanceof AnimationModel)
+              && !(m instanceof VersionedAnimation) ? CompiledAnimation.compile(m) : m,
+              ticksPerSecond);
+    } else if (viewType.equalsIgnoreCase("compact")) {
+      return new TextualView(m, fileOutput, true);
+    } else if (viewType.equalsIgnoreCase("binary")) {
+      return new BinaryView(m, fileOutput);
+    } else if (viewType.equalsIgnoreCase("frames")) {
+      return new FramesView(m, fileOutput);
+    } else if (viewType.equalsIgnoreCase("y4m")) {
+      return new VideoView(m, fileOutput, ticksPerSecond, true);
+    } else if (viewType.equalsIgnoreCase("rgb")) {
+      return new VideoView(m, fileOutput, ticksPerSecond, false);
     } else if (viewType.equalsIgnoreCase("edit")) {
       return new EditView(m, ticksPerSecond);
     } else {
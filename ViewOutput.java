@@ -0,0 +1,84 @@
+package cs3500.animator.view;
+
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Opens the outputs views write to. An output named with the .gz extension is compressed with gzip
+ * as it is written, and no output name means the standard output, which is flushed but never
+ * closed.
+ */
+final class ViewOutput {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private ViewOutput() {
+  }
+
+  /**
+   * Opens the given output as a stream of bytes.
+   *
+   * @param fileOutput name of the file to output to, or null for the standard output
+   * @return the stream to write to, which the caller closes.
+   * @throws IOException if the file cannot be opened.
+   */
+  static OutputStream open(String fileOutput) throws IOException {
+    OutputStream out;
+    if (fileOutput == null) {
+      // written through the file descriptor, so errors such as a closed pipe are reported
+      // instead of being swallowed by System.out
+      System.out.flush();
+      out = new FilterOutputStream(new FileOutputStream(FileDescriptor.out)) {
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+          this.out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+          flush();
+        }
+      };
+    } else {
+      out = new FileOutputStream(fileOutput);
+    }
+    if (fileOutput != null && fileOutput.endsWith(".gz")) {
+      return new GZIPOutputStream(out, BUFFER_SIZE);
+    }
+    return out;
+  }
+
+  /**
+   * Opens the given output as a buffered stream of characters in UTF-8.
+   *
+   * @param fileOutput name of the file to output to, or null for the standard output
+   * @return the writer to write to, which the caller closes.
+   * @throws IOException if the file cannot be opened.
+   */
+  static Writer openWriter(String fileOutput) throws IOException {
+    return new BufferedWriter(new OutputStreamWriter(open(fileOutput), StandardCharsets.UTF_8),
+            BUFFER_SIZE);
+  }
+
+  /**
+   * Reports that writing to the given output failed. The report goes to the standard error, since
+   * the output may be the standard output that just failed, and the program then exits with a
+   * non-zero status if it was, so a pipeline sees the failure.
+   *
+   * @param fileOutput name of the file that was output to, or null for the standard output
+   */
+  static void reportFailure(String fileOutput) {
+    System.err.println("An error occurred when writing the file.");
+    if (fileOutput == null) {
+      System.exit(1);
+    }
+  }
+}